@@ -0,0 +1,68 @@
+package org.graphstream.ui.javafx.renderer;
+
+import org.graphstream.algorithm.generator.Generator;
+import org.graphstream.algorithm.generator.GridGenerator;
+import org.graphstream.graph.Node;
+import org.graphstream.ui.geom.Point3;
+import org.graphstream.ui.graphicGraph.GraphicGraph;
+import org.graphstream.ui.graphicGraph.GraphicNode;
+
+/**
+ * graphs and cameras shared by the benchmarks
+ */
+final class BenchmarkGraphs
+{
+    static final double viewportWidth = 1600;
+
+    static final double viewportHeight = 1000;
+
+
+    /**
+     * build a positioned grid with about the given number of nodes
+     */
+    static GraphicGraph grid(final int numNodes)
+    {
+        final GraphicGraph graph = new GraphicGraph("grid-" + numNodes);
+        final Generator generator = new GridGenerator(false, false, true);
+        generator.addSink(graph);
+        generator.begin();
+        final int side = Math.max(1, (int) Math.round(Math.sqrt(numNodes)) - 1);
+        for (int i = 0; i < side; i++)
+        {
+            generator.nextEvents();
+        }
+        generator.end();
+        generator.removeSink(graph);
+        return graph;
+    }
+
+
+    static FxCamera camera(final GraphicGraph graph)
+    {
+        graph.computeBounds();
+        final Point3 lo = graph.getMinPos();
+        final Point3 hi = graph.getMaxPos();
+        final FxCamera camera = new FxCamera(graph);
+        camera.setBounds(lo.x, lo.y, 0, hi.x, hi.y, 0);
+        camera.setViewport(0, 0, viewportWidth, viewportHeight);
+        camera.pushView(graph, null);
+        return camera;
+    }
+
+
+    static void index(final FxCamera camera, final GraphicGraph graph)
+    {
+        camera.beginIndex();
+        for (final Node node : graph)
+        {
+            camera.indexElement((GraphicNode) node);
+        }
+        camera.endIndex();
+    }
+
+
+    private BenchmarkGraphs()
+    {
+
+    }
+}
@@ -0,0 +1,120 @@
+package org.graphstream.ui.javafx.renderer;
+
+import org.graphstream.graph.Node;
+import org.graphstream.ui.geom.Point3;
+import org.graphstream.ui.graphicGraph.GraphicGraph;
+import org.graphstream.ui.graphicGraph.GraphicNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * graph to screen transforms of every node, and view recomputation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class CameraBenchmark
+{
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int nodes;
+
+    private GraphicGraph graph;
+
+    private FxCamera camera;
+
+    private double[] positions;
+
+    private double[] coords;
+
+    private final Point3 point = new Point3();
+
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        this.graph = BenchmarkGraphs.grid(this.nodes);
+        this.camera = BenchmarkGraphs.camera(this.graph);
+        this.positions = new double[this.graph.getNodeCount() * 2];
+        int i = 0;
+        for (final Node node : this.graph)
+        {
+            this.positions[i++] = ((GraphicNode) node).x;
+            this.positions[i++] = ((GraphicNode) node).y;
+        }
+        this.coords = new double[this.positions.length];
+    }
+
+
+    @Benchmark
+    public void transformGuToPxAllocating(final Blackhole bh)
+    {
+        for (int i = 0; i < this.positions.length; i += 2)
+        {
+            bh.consume(this.camera.transformGuToPx(this.positions[i], this.positions[i + 1], 0));
+        }
+    }
+
+
+    @Benchmark
+    public void transformGuToPxHolder(final Blackhole bh)
+    {
+        for (int i = 0; i < this.positions.length; i += 2)
+        {
+            this.camera.transformGuToPx(this.positions[i], this.positions[i + 1], 0, this.point);
+            bh.consume(this.point.x);
+        }
+    }
+
+
+    @Benchmark
+    public double[] transformGuToPxBatch()
+    {
+        System.arraycopy(this.positions, 0, this.coords, 0, this.positions.length);
+        this.camera.transformGuToPx(this.coords, 0, this.coords.length / 2);
+        return this.coords;
+    }
+
+
+    @Benchmark
+    public double[] transformPxToGuBatch()
+    {
+        System.arraycopy(this.positions, 0, this.coords, 0, this.positions.length);
+        this.camera.transformPxToGu(this.coords, 0, this.coords.length / 2);
+        return this.coords;
+    }
+
+
+    @Benchmark
+    public FxCamera autoFitView()
+    {
+        this.camera.setAutoFitView(true);
+        this.camera.pushView(this.graph, null);
+        return this.camera;
+    }
+
+
+    @Benchmark
+    public FxCamera userView()
+    {
+        this.camera.setAutoFitView(false);
+        this.camera.setViewPercent(0.5);
+        this.camera.pushView(this.graph, null);
+        return this.camera;
+    }
+}
@@ -0,0 +1,76 @@
+package org.graphstream.ui.javafx.renderer;
+
+import org.graphstream.ui.geom.Point3;
+import org.graphstream.ui.graphicGraph.GraphicGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * whole frames rendered headless into a counting backend
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class FrameBenchmark
+{
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int nodes;
+
+    private GraphicGraph graph;
+
+    private FxGraphRenderer renderer;
+
+    private final CountingDrawContext context = new CountingDrawContext();
+
+    private long frames = 0;
+
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        this.graph = BenchmarkGraphs.grid(this.nodes);
+        this.graph.computeBounds();
+        final Point3 lo = this.graph.getMinPos();
+        final Point3 hi = this.graph.getMaxPos();
+
+        this.renderer = new FxGraphRenderer();
+        this.renderer.open(this.graph, null);
+        // measure full detail frames, not whatever level the governor settles on
+        this.renderer.getQualityGovernor().setEnabled(false);
+        ((FxCamera) this.renderer.getCamera()).setBounds(lo.x, lo.y, 0, hi.x, hi.y, 0);
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        System.out.println();
+        System.out.println("commands per frame: " + this.context.getTotalCount() / Math.max(1, this.frames));
+        this.renderer.close();
+    }
+
+    @Benchmark
+    public CountingDrawContext renderFrame()
+    {
+        this.graph.graphChanged = true;
+        this.renderer.render(this.context, 0, 0, BenchmarkGraphs.viewportWidth, BenchmarkGraphs.viewportHeight);
+        this.frames++;
+        return this.context;
+    }
+}
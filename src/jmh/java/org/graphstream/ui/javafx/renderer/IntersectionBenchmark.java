@@ -0,0 +1,102 @@
+package org.graphstream.ui.javafx.renderer;
+
+import javafx.geometry.Point2D;
+import javafx.geometry.Rectangle2D;
+import org.graphstream.ui.graphicGraph.GraphicGraph;
+import org.graphstream.ui.graphicGraph.GraphicNode;
+import org.graphstream.ui.javafx.util.Geometries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * clipping an edge against node bounds, through the element contexts and
+ * through the primitive geometry buffer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IntersectionBenchmark
+{
+    private static final int numLines = 1024;
+
+    private SquareContext square;
+
+    private CircleContext circle;
+
+    private final NodeGeometry geometry = new NodeGeometry();
+
+    private final double[] lines = new double[numLines * 2];
+
+    private final double[] point = new double[2];
+
+    private int line = 0;
+
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        final GraphicGraph graph = new GraphicGraph("intersection");
+        final GraphicNode node = graph.addNode("n");
+        final Point2D center = new Point2D(100, 100);
+        this.square = new SquareContext(node, center, new Rectangle2D(90, 90, 20, 20));
+        this.circle = new CircleContext(node, center, 14, 14);
+        this.geometry.add(100, 100, 10, 10, NodeGeometry.SHAPE_BOX);
+
+        // far end points all around the node
+        final Random random = new Random(42);
+        for (int i = 0; i < this.lines.length; i += 2)
+        {
+            final double angle = random.nextDouble() * Math.PI * 2d;
+            this.lines[i] = 100 + Math.cos(angle) * 500;
+            this.lines[i + 1] = 100 + Math.sin(angle) * 500;
+        }
+    }
+
+
+    @Benchmark
+    public Point2D squareContextIntersects()
+    {
+        final int i = (this.line++ % numLines) * 2;
+        return this.square.intersects(this.lines[i], this.lines[i + 1], 100, 100);
+    }
+
+
+    @Benchmark
+    public Point2D circleContextIntersects()
+    {
+        final int i = (this.line++ % numLines) * 2;
+        return this.circle.intersects(this.lines[i], this.lines[i + 1], 100, 100);
+    }
+
+
+    @Benchmark
+    public Point2D geometriesIntersection()
+    {
+        final int i = (this.line++ % numLines) * 2;
+        return Geometries.intersection(new Point2D(this.lines[i], this.lines[i + 1]), new Point2D(100, 100), new Point2D(90, 90), new Point2D(110, 90));
+    }
+
+
+    @Benchmark
+    public double geometryBoundaryPoint()
+    {
+        final int i = (this.line++ % numLines) * 2;
+        this.geometry.boundaryPoint(0, this.lines[i], this.lines[i + 1], this.point);
+        return this.point[0];
+    }
+}
@@ -0,0 +1,108 @@
+package org.graphstream.ui.javafx.renderer;
+
+import org.graphstream.graph.Node;
+import org.graphstream.ui.graphicGraph.GraphicElement;
+import org.graphstream.ui.graphicGraph.GraphicGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * picking, box selection and visibility tests against the camera, with and
+ * without the screen-space index, and the cost of building the index
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class PickingBenchmark
+{
+    private static final int numPicks = 256;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int nodes;
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private GraphicGraph graph;
+
+    private FxCamera camera;
+
+    private final double[] picks = new double[numPicks * 2];
+
+    private int pick = 0;
+
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        this.graph = BenchmarkGraphs.grid(this.nodes);
+        this.camera = BenchmarkGraphs.camera(this.graph);
+        if (this.indexed)
+        {
+            BenchmarkGraphs.index(this.camera, this.graph);
+        }
+
+        final Random random = new Random(42);
+        for (int i = 0; i < this.picks.length; i += 2)
+        {
+            this.picks[i] = random.nextDouble() * BenchmarkGraphs.viewportWidth;
+            this.picks[i + 1] = random.nextDouble() * BenchmarkGraphs.viewportHeight;
+        }
+    }
+
+
+    @Benchmark
+    public GraphicElement findNodeOrSpriteAt()
+    {
+        final int i = (this.pick++ % numPicks) * 2;
+        return this.camera.findNodeOrSpriteAt(this.graph, this.picks[i], this.picks[i + 1]);
+    }
+
+
+    @Benchmark
+    public Collection<GraphicElement> allNodesOrSpritesIn()
+    {
+        final int i = (this.pick++ % numPicks) * 2;
+        return this.camera.allNodesOrSpritesIn(this.graph, this.picks[i], this.picks[i + 1], this.picks[i] + 120, this.picks[i + 1] + 80);
+    }
+
+
+    @Benchmark
+    public FxCamera buildIndex()
+    {
+        BenchmarkGraphs.index(this.camera, this.graph);
+        return this.camera;
+    }
+
+
+    @Benchmark
+    public int isVisible()
+    {
+        int visible = 0;
+        for (final Node node : this.graph)
+        {
+            if (this.camera.isVisible((GraphicElement) node))
+            {
+                visible++;
+            }
+        }
+        return visible;
+    }
+}
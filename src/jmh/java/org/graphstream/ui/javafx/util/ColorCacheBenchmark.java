@@ -0,0 +1,81 @@
+package org.graphstream.ui.javafx.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * awt to fx color conversion for one frame, with and without the color cache
+ * <p>
+ * A frame is modelled as one fill, stroke and text color per style group plus
+ * one fill color per dynamic element, drawn from a fixed palette. Run with
+ * {@code -prof gc} to see the bytes allocated per frame.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ColorCacheBenchmark
+{
+    private static final int numGroups = 50;
+
+    private static final int numDynamicElements = 10000;
+
+    private static final int paletteSize = 64;
+
+    private final java.awt.Color[] palette = new java.awt.Color[paletteSize];
+
+    private final int[] frame = new int[numGroups * 3 + numDynamicElements];
+
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        final Random random = new Random(42);
+        for (int i = 0; i < this.palette.length; i++)
+        {
+            this.palette[i] = new java.awt.Color(random.nextInt(256), random.nextInt(256), random.nextInt(256), i % 4 == 0 ? 128 : 255);
+        }
+        for (int i = 0; i < this.frame.length; i++)
+        {
+            this.frame[i] = random.nextInt(paletteSize);
+        }
+    }
+
+
+    @Benchmark
+    public int uncached()
+    {
+        int hash = 0;
+        for (final int index : this.frame)
+        {
+            hash += SwingUtils.convert(this.palette[index]).hashCode();
+        }
+        return hash;
+    }
+
+
+    @Benchmark
+    public int cached()
+    {
+        int hash = 0;
+        for (final int index : this.frame)
+        {
+            hash += SwingUtils.fromAwt(this.palette[index]).hashCode();
+        }
+        return hash;
+    }
+}
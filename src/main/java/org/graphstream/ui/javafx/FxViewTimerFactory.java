@@ -6,13 +6,30 @@
 package org.graphstream.ui.javafx;
 
 import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
 import org.graphstream.ui.view.ViewTimer;
 import org.graphstream.ui.view.ViewTimerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * a javafx timer factory
+ * <p>
+ * Timers run on every pulse, paced by the pulse timestamp, only while there is
+ * something to draw. Once a number of consecutive ticks pass without any
+ * frame being requested, the animation timer stops so the fx thread can idle,
+ * and the worker is only polled at a slow rate to pick up graph events.
+ * Frames are requested per timer: a view learns which timer drives it from
+ * {@link #currentTimer()} while it is displayed, and from then on wakes only
+ * that timer with {@link #requestFrame(ViewTimer)}.
  *
  * @author trajar
  */
@@ -20,6 +37,58 @@ public class FxViewTimerFactory implements ViewTimerFactory
 {
     private static final Logger logger = LoggerFactory.getLogger(FxViewTimerFactory.class);
 
+    private static final int idleTicksBeforeSleep = 30;
+
+    private static final long idlePollMs = 250;
+
+    private static final Collection<TimerImpl> timers = new CopyOnWriteArraySet<>();
+
+    // the timer whose worker is running, only touched on the fx thread
+    private static TimerImpl running = null;
+
+    private static final ScheduledExecutorService idlePoller = Executors.newSingleThreadScheduledExecutor(r ->
+    {
+        final Thread thread = new Thread(r, "fx-view-idle-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * note that something changed and every view needs to be drawn, callable from any thread
+     */
+    public static void requestFrame()
+    {
+        for (final TimerImpl timer : timers)
+        {
+            timer.request();
+        }
+    }
+
+    /**
+     * note that a view driven by the given timer needs to be drawn, callable from any thread
+     *
+     * @param timer the timer driving the view, or null to wake every timer
+     */
+    public static void requestFrame(final ViewTimer timer)
+    {
+        if (timer instanceof TimerImpl)
+        {
+            ((TimerImpl) timer).request();
+        }
+        else
+        {
+            requestFrame();
+        }
+    }
+
+    /**
+     * @return the timer whose worker is running on the fx thread, or null outside of a tick
+     */
+    public static ViewTimer currentTimer()
+    {
+        return Platform.isFxApplicationThread() ? running : null;
+    }
+
     @Override
     public ViewTimer create(int delayMs, Runnable worker)
     {
@@ -38,9 +107,21 @@ public class FxViewTimerFactory implements ViewTimerFactory
     {
         private final Runnable worker;
 
-        private final int delayMs;
+        private final long delayNs;
+
+        private final AtomicLong requests = new AtomicLong();
+
+        private long lastPulseNs = Long.MIN_VALUE;
+
+        private long seenRequests = -1;
 
-        private long lastTimeMs = 0;
+        private int idleTicks = 0;
+
+        private volatile boolean sleeping = false;
+
+        private volatile boolean stopped = true;
+
+        private ScheduledFuture<?> idlePoll = null;
 
         public TimerImpl(final int delayMs, final Runnable r)
         {
@@ -48,29 +129,135 @@ public class FxViewTimerFactory implements ViewTimerFactory
             {
                 throw new IllegalArgumentException("Runnable worker cannot be null.");
             }
-            this.delayMs = delayMs;
+            this.delayNs = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs));
             this.worker = r;
         }
 
         @Override
-        public void handle(final long l)
+        public void start()
         {
-            final long nowMs = System.currentTimeMillis();
-            final long sinceMs = nowMs - this.lastTimeMs;
-            if (sinceMs < this.delayMs)
+            this.stopped = false;
+            this.sleeping = false;
+            this.idleTicks = 0;
+            timers.add(this);
+            super.start();
+        }
+
+        @Override
+        public void stop()
+        {
+            this.stopped = true;
+            this.cancelIdlePoll();
+            timers.remove(this);
+            super.stop();
+        }
+
+        public boolean isSleeping()
+        {
+            return this.sleeping;
+        }
+
+        private void request()
+        {
+            this.requests.incrementAndGet();
+            if (this.sleeping)
+            {
+                if (Platform.isFxApplicationThread())
+                {
+                    this.wake();
+                }
+                else
+                {
+                    Platform.runLater(this::wake);
+                }
+            }
+        }
+
+        @Override
+        public void handle(final long now)
+        {
+            if (this.lastPulseNs != Long.MIN_VALUE && now - this.lastPulseNs < this.delayNs)
             {
                 return;
             }
+            this.lastPulseNs = now;
+            this.tick();
+            if (this.idleTicks >= idleTicksBeforeSleep)
+            {
+                this.sleep();
+            }
+        }
 
+        private void tick()
+        {
+            final TimerImpl previous = running;
+            running = this;
             try
             {
                 this.worker.run();
-                this.lastTimeMs = System.currentTimeMillis();
             }
             catch (final Exception e)
             {
                 logger.warn("Unable to update graph frame.", e);
             }
+            finally
+            {
+                running = previous;
+            }
+
+            // views request a frame whenever they repaint, so an unchanged count means an idle tick
+            final long current = this.requests.get();
+            if (current != this.seenRequests)
+            {
+                this.seenRequests = current;
+                this.idleTicks = 0;
+            }
+            else
+            {
+                this.idleTicks++;
+            }
+        }
+
+        private void sleep()
+        {
+            super.stop();
+            this.sleeping = true;
+            this.idlePoll = idlePoller.scheduleWithFixedDelay(() -> Platform.runLater(this::poll), idlePollMs, idlePollMs, TimeUnit.MILLISECONDS);
+        }
+
+        private void poll()
+        {
+            if (!this.sleeping || this.stopped)
+            {
+                return;
+            }
+            this.tick();
+            if (0 == this.idleTicks)
+            {
+                this.wake();
+            }
+        }
+
+        private void wake()
+        {
+            if (!this.sleeping || this.stopped)
+            {
+                return;
+            }
+            this.cancelIdlePoll();
+            this.sleeping = false;
+            this.idleTicks = 0;
+            this.lastPulseNs = Long.MIN_VALUE;
+            super.start();
+        }
+
+        private void cancelIdlePoll()
+        {
+            if (this.idlePoll != null)
+            {
+                this.idlePoll.cancel(false);
+                this.idlePoll = null;
+            }
         }
     }
 }
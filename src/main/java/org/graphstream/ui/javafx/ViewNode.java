@@ -6,22 +6,26 @@ import java.awt.event.MouseMotionListener;
 import java.util.Collection;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.scene.Group;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
+import javafx.scene.input.InputEvent;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.input.ScrollEvent;
 import javafx.stage.Stage;
 import org.graphstream.ui.graphicGraph.GraphicElement;
 import org.graphstream.ui.graphicGraph.GraphicGraph;
+import org.graphstream.ui.javafx.util.IconManager;
 import org.graphstream.ui.javafx.util.SwingUtils;
 import org.graphstream.ui.swingViewer.GraphRenderer;
 import org.graphstream.ui.swingViewer.LayerRenderer;
 import org.graphstream.ui.view.Camera;
 import org.graphstream.ui.view.View;
+import org.graphstream.ui.view.ViewTimer;
 import org.graphstream.ui.view.Viewer;
 import org.graphstream.ui.view.util.DefaultShortcutManager;
 import org.graphstream.ui.view.util.ListeningMouseManager;
@@ -49,6 +53,20 @@ public class ViewNode extends Canvas implements View
 
     private final GraphicGraph graph;
 
+    private final ViewStats stats;
+
+    // loaded icons replace their placeholders on the next display tick
+    private final IconManager.IconListener iconListener = (name, width, height) -> this.invalidate();
+
+    private final AtomicLong renderedFrames = new AtomicLong();
+
+    private final AtomicLong skippedFrames = new AtomicLong();
+
+    private volatile boolean dirty = true;
+
+    // the timer displaying this view, learned on the first display tick
+    private volatile ViewTimer timer = null;
+
     private ShortcutManager shortcuts;
 
     private MouseManager mouseClicks;
@@ -82,6 +100,9 @@ public class ViewNode extends Canvas implements View
         this.graph = viewer.getGraphicGraph();
         this.renderer = new ViewRenderer(delegate);
         this.renderer.open(graph, this);
+        this.stats = new ViewStats(this, delegate);
+        this.stats.register();
+        IconManager.getInstance().addListener(this.iconListener);
         this.wireEvents();
         if (null == this.mouseClicks)
         {
@@ -125,7 +146,56 @@ public class ViewNode extends Canvas implements View
     @Override
     public void display(final GraphicGraph graph, final boolean graphChanged)
     {
-        this.repaint();
+        final ViewTimer current = FxViewTimerFactory.currentTimer();
+        if (current != null)
+        {
+            this.timer = current;
+        }
+
+        // camera and style changes raise the graph changed flag as well
+        if (graphChanged || this.dirty)
+        {
+            // keeps the view timer awake while there is something to draw
+            FxViewTimerFactory.requestFrame(this.timer);
+            this.repaint();
+        }
+        else if (this.renderer.needsRefinement())
+        {
+            // the view settled on a degraded frame, draw it once more in full
+            this.renderer.refine();
+            this.repaint();
+        }
+        else
+        {
+            this.skippedFrames.incrementAndGet();
+        }
+    }
+
+    /**
+     * mark the view as needing a repaint on the next display tick
+     */
+    public void invalidate()
+    {
+        this.dirty = true;
+        FxViewTimerFactory.requestFrame(this.timer);
+    }
+
+    public long getRenderedFrameCount()
+    {
+        return this.renderedFrames.get();
+    }
+
+    public long getSkippedFrameCount()
+    {
+        return this.skippedFrames.get();
+    }
+
+    /**
+     * @return the statistics this view publishes through jmx
+     */
+    public ViewStats getStats()
+    {
+        return this.stats;
     }
 
     public void repaint()
@@ -135,6 +205,8 @@ public class ViewNode extends Canvas implements View
         {
             return;
         }
+        this.dirty = false;
+        this.renderedFrames.incrementAndGet();
 
         // render graph
         final double x = view.getLayoutX();
@@ -147,6 +219,8 @@ public class ViewNode extends Canvas implements View
     @Override
     public void close(final GraphicGraph graph)
     {
+        this.stats.unregister();
+        IconManager.getInstance().removeListener(this.iconListener);
         this.renderer.close();
 
         if (this.shortcuts != null)
@@ -329,6 +403,9 @@ public class ViewNode extends Canvas implements View
 
     private void wireEvents()
     {
+        // input usually moves the camera or elements, draw at full rate again right away
+        this.addEventFilter(InputEvent.ANY, event -> FxViewTimerFactory.requestFrame(this.timer));
+
         this.widthProperty().addListener(evt -> repaint());
         this.heightProperty().addListener(evt -> repaint());
 
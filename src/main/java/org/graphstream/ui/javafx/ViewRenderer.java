@@ -109,6 +109,26 @@ public class ViewRenderer implements StyleGroupListener
         }
     }
 
+    /**
+     * @return true if the last frame was degraded and a full quality one should follow once the view settles
+     */
+    public boolean needsRefinement()
+    {
+        if (null == this.graph || this.graph.getNodeCount() <= 0)
+        {
+            return false;
+        }
+        return this.delegate instanceof FxGraphRenderer && ((FxGraphRenderer) this.delegate).needsRefinement();
+    }
+
+    public void refine()
+    {
+        if (this.delegate instanceof FxGraphRenderer)
+        {
+            ((FxGraphRenderer) this.delegate).refine();
+        }
+    }
+
     public void beginSelectionAt(double x1, double y1)
     {
         this.delegate.beginSelectionAt(x1, y1);
@@ -137,6 +157,10 @@ public class ViewRenderer implements StyleGroupListener
     @Override
     public void elementStyleChanged(Element element, StyleGroup oldStyle, StyleGroup style)
     {
+        if (this.delegate instanceof FxGraphRenderer)
+        {
+            ((FxGraphRenderer) this.delegate).styleChanged(oldStyle, style);
+        }
         this.graph.graphChanged = true;
     }
 }
@@ -0,0 +1,237 @@
+package org.graphstream.ui.javafx;
+
+import org.graphstream.ui.javafx.renderer.FrameStats;
+import org.graphstream.ui.javafx.renderer.FxGraphRenderer;
+import org.graphstream.ui.javafx.util.BoundedIconCache;
+import org.graphstream.ui.javafx.util.FontCache;
+import org.graphstream.ui.javafx.util.IconCache;
+import org.graphstream.ui.javafx.util.IconManager;
+import org.graphstream.ui.javafx.util.TextWidthCache;
+import org.graphstream.ui.swingViewer.GraphRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * the jmx view of a {@link ViewNode} and the caches its renderer draws from
+ * <p>
+ * Frame timings are only available when the view renders through a
+ * {@link FxGraphRenderer}; other renderers report zero.
+ */
+public class ViewStats implements ViewStatsMBean
+{
+    private static final Logger logger = LoggerFactory.getLogger(ViewStats.class);
+
+    private final ViewNode view;
+
+    private final FrameStats frameStats;
+
+    private ObjectName name = null;
+
+    public ViewStats(final ViewNode view, final GraphRenderer renderer)
+    {
+        if (null == view)
+        {
+            throw new IllegalArgumentException("View cannot be null.");
+        }
+        this.view = view;
+        this.frameStats = renderer instanceof FxGraphRenderer ? ((FxGraphRenderer) renderer).getFrameStats() : null;
+    }
+
+    /**
+     * register with the platform mbean server under the view id, failures are logged and ignored
+     */
+    public void register()
+    {
+        if (this.name != null)
+        {
+            return;
+        }
+        try
+        {
+            final ObjectName name = new ObjectName("org.graphstream.ui.javafx:type=ViewNode,id=" + ObjectName.quote(this.view.getId()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            this.name = name;
+        }
+        catch (final Exception e)
+        {
+            logger.warn("Unable to register view statistics for [" + this.view.getId() + "].", e);
+        }
+    }
+
+    public void unregister()
+    {
+        if (null == this.name)
+        {
+            return;
+        }
+        try
+        {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(this.name))
+            {
+                server.unregisterMBean(this.name);
+            }
+        }
+        catch (final Exception e)
+        {
+            logger.warn("Unable to unregister view statistics [" + this.name + "].", e);
+        }
+        this.name = null;
+    }
+
+    public ObjectName getObjectName()
+    {
+        return this.name;
+    }
+
+    @Override
+    public long getRenderedFrames()
+    {
+        return this.view.getRenderedFrameCount();
+    }
+
+    @Override
+    public long getSkippedFrames()
+    {
+        return this.view.getSkippedFrameCount();
+    }
+
+    @Override
+    public long getStatsFrames()
+    {
+        return null == this.frameStats ? 0 : this.frameStats.getFrameCount();
+    }
+
+    @Override
+    public double getFrameTimeP50()
+    {
+        return this.percentile(FrameStats.Phase.FRAME, 50);
+    }
+
+    @Override
+    public double getFrameTimeP95()
+    {
+        return this.percentile(FrameStats.Phase.FRAME, 95);
+    }
+
+    @Override
+    public double getFrameTimeP99()
+    {
+        return this.percentile(FrameStats.Phase.FRAME, 99);
+    }
+
+    @Override
+    public double getPhaseTime(final String phase, final double percentile)
+    {
+        if (null == phase)
+        {
+            throw new IllegalArgumentException("Phase cannot be null.");
+        }
+        return this.percentile(FrameStats.Phase.valueOf(phase.toUpperCase()), percentile);
+    }
+
+    @Override
+    public int getDrawnElements()
+    {
+        return null == this.frameStats ? 0 : this.frameStats.getDrawnElementCount();
+    }
+
+    @Override
+    public int getCulledElements()
+    {
+        return null == this.frameStats ? 0 : this.frameStats.getCulledElementCount();
+    }
+
+    @Override
+    public int getLabelCacheSize()
+    {
+        return TextWidthCache.defaultTextWidthCache().size();
+    }
+
+    @Override
+    public int getLabelCacheCapacity()
+    {
+        return TextWidthCache.defaultTextWidthCache().getCapacity();
+    }
+
+    @Override
+    public double getLabelCacheHitRate()
+    {
+        final TextWidthCache cache = TextWidthCache.defaultTextWidthCache();
+        return rate(cache.getHitCount(), cache.getMissCount());
+    }
+
+    @Override
+    public int getIconCount()
+    {
+        return IconManager.getInstance().size();
+    }
+
+    @Override
+    public double getIconManagerHitRate()
+    {
+        final IconManager icons = IconManager.getInstance();
+        return rate(icons.getHitCount(), icons.getMissCount());
+    }
+
+    @Override
+    public int getIconCacheSize()
+    {
+        return IconManager.getInstance().getCache().size();
+    }
+
+    @Override
+    public double getIconCacheHitRate()
+    {
+        final IconCache cache = IconManager.getInstance().getCache();
+        return rate(cache.getHitCount(), cache.getMissCount());
+    }
+
+    @Override
+    public long getIconCacheBytes()
+    {
+        final IconCache cache = IconManager.getInstance().getCache();
+        return cache instanceof BoundedIconCache ? ((BoundedIconCache) cache).getBytes() : 0;
+    }
+
+    @Override
+    public long getIconCacheEvictions()
+    {
+        final IconCache cache = IconManager.getInstance().getCache();
+        return cache instanceof BoundedIconCache ? ((BoundedIconCache) cache).getEvictionCount() : 0;
+    }
+
+    @Override
+    public int getFontCacheSize()
+    {
+        return FontCache.defaultFontCache().size();
+    }
+
+    @Override
+    public void resetFrameStats()
+    {
+        if (this.frameStats != null)
+        {
+            this.frameStats.reset();
+        }
+    }
+
+    private double percentile(final FrameStats.Phase phase, final double percentile)
+    {
+        if (null == this.frameStats)
+        {
+            return 0;
+        }
+        return this.frameStats.getPercentile(phase, percentile) / 1e6;
+    }
+
+    private static double rate(final long hits, final long misses)
+    {
+        final long total = hits + misses;
+        return total > 0 ? (double) hits / total : 0;
+    }
+}
@@ -0,0 +1,53 @@
+package org.graphstream.ui.javafx;
+
+/**
+ * live rendering and cache statistics of a view, exposed through jmx
+ * <p>
+ * Times are in milliseconds, rates between 0 and 1.
+ */
+public interface ViewStatsMBean
+{
+    long getRenderedFrames();
+
+    long getSkippedFrames();
+
+    long getStatsFrames();
+
+    double getFrameTimeP50();
+
+    double getFrameTimeP95();
+
+    double getFrameTimeP99();
+
+    /**
+     * @param phase name of a {@link org.graphstream.ui.javafx.renderer.FrameStats.Phase}
+     * @param percentile between 0 and 100
+     */
+    double getPhaseTime(String phase, double percentile);
+
+    int getDrawnElements();
+
+    int getCulledElements();
+
+    int getLabelCacheSize();
+
+    int getLabelCacheCapacity();
+
+    double getLabelCacheHitRate();
+
+    int getIconCount();
+
+    double getIconManagerHitRate();
+
+    int getIconCacheSize();
+
+    double getIconCacheHitRate();
+
+    long getIconCacheBytes();
+
+    long getIconCacheEvictions();
+
+    int getFontCacheSize();
+
+    void resetFrameStats();
+}
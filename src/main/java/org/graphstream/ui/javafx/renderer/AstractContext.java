@@ -16,6 +16,63 @@ import java.util.Arrays;
  */
 abstract public class AstractContext implements ElementContext
 {
+    private double keyX = Double.NaN;
+
+    private double keyY = Double.NaN;
+
+    private double keyWidth = Double.NaN;
+
+    private double keyHeight = Double.NaN;
+
+    private double keyPaddingX = Double.NaN;
+
+    private double keyPaddingY = Double.NaN;
+
+    private long keyTransform = -1;
+
+
+    /**
+     * @return the screen x of the element centre, read without building a point
+     */
+    public abstract double getX();
+
+
+    public abstract double getY();
+
+
+    /**
+     * @return the screen width of the element bounds, read without building a rectangle
+     */
+    public abstract double getWidth();
+
+
+    public abstract double getHeight();
+
+
+    /**
+     * @return true if the context was last computed from exactly these inputs
+     */
+    public boolean isCurrent(final double x, final double y, final double width, final double height, final double paddingX, final double paddingY, final long transformVersion)
+    {
+        return this.keyX == x && this.keyY == y &&
+            this.keyWidth == width && this.keyHeight == height &&
+            this.keyPaddingX == paddingX && this.keyPaddingY == paddingY &&
+            this.keyTransform == transformVersion;
+    }
+
+
+    public void setCurrent(final double x, final double y, final double width, final double height, final double paddingX, final double paddingY, final long transformVersion)
+    {
+        this.keyX = x;
+        this.keyY = y;
+        this.keyWidth = width;
+        this.keyHeight = height;
+        this.keyPaddingX = paddingX;
+        this.keyPaddingY = paddingY;
+        this.keyTransform = transformVersion;
+    }
+
+
     @Override
     public boolean contains(Point2D pos)
     {
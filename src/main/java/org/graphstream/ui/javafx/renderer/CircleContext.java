@@ -15,19 +15,48 @@ public class CircleContext extends AstractContext
 {
     private final GraphicElement element;
 
-    private final Point2D pos;
+    private double x;
 
-    private final double radiusx;
+    private double y;
 
-    private final double radiusy;
+    private double radiusx;
+
+    private double radiusy;
+
+    // built on demand and kept until the next update
+    private Point2D pos;
+
+    private Rectangle2D bounds;
+
+
+    public CircleContext(GraphicElement element)
+    {
+        this.element = element;
+    }
 
 
     public CircleContext(GraphicElement element, Point2D pos, double radiusx, double radiusy)
     {
         this.element = element;
+        this.update(pos, radiusx, radiusy);
+    }
+
+
+    public void update(Point2D pos, double radiusx, double radiusy)
+    {
+        this.update(pos.getX(), pos.getY(), radiusx, radiusy);
         this.pos = pos;
+    }
+
+
+    public void update(double x, double y, double radiusx, double radiusy)
+    {
+        this.x = x;
+        this.y = y;
         this.radiusx = radiusx;
         this.radiusy = radiusy;
+        this.pos = null;
+        this.bounds = null;
     }
 
 
@@ -41,15 +70,49 @@ public class CircleContext extends AstractContext
     @Override
     public Rectangle2D getBounds()
     {
-        double x = pos.getX() - this.radiusx;
-        double y = pos.getY() - this.radiusy;
-        return new Rectangle2D(x, y, this.radiusx * 2d, this.radiusy * 2d);
+        if (null == this.bounds)
+        {
+            this.bounds = new Rectangle2D(this.x - this.radiusx, this.y - this.radiusy, this.radiusx * 2d, this.radiusy * 2d);
+        }
+        return this.bounds;
     }
 
 
     @Override
     public Point2D getPosition()
     {
+        if (null == this.pos)
+        {
+            this.pos = new Point2D(this.x, this.y);
+        }
         return this.pos;
     }
+
+
+    @Override
+    public double getX()
+    {
+        return this.x;
+    }
+
+
+    @Override
+    public double getY()
+    {
+        return this.y;
+    }
+
+
+    @Override
+    public double getWidth()
+    {
+        return this.radiusx * 2d;
+    }
+
+
+    @Override
+    public double getHeight()
+    {
+        return this.radiusy * 2d;
+    }
 }
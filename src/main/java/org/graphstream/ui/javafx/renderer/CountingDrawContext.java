@@ -0,0 +1,430 @@
+/*
+ * Copyright 2006 - 2013
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.ui.javafx.renderer;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.shape.StrokeLineJoin;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontSmoothingType;
+import javafx.scene.transform.Affine;
+
+/**
+ * a headless backend that draws nothing and only counts the calls it receives
+ * <p>
+ * Useful to run full frames in benchmarks and to assert how many commands a
+ * frame issues.
+ */
+public class CountingDrawContext implements DrawContext
+{
+    private final long[] counts = new long[DrawCommand.values().length];
+
+
+    public long getCount(final DrawCommand command)
+    {
+        return this.counts[command.ordinal()];
+    }
+
+
+    public long getTotalCount()
+    {
+        long total = 0;
+        for (final long count : this.counts)
+        {
+            total += count;
+        }
+        return total;
+    }
+
+
+    public void reset()
+    {
+        for (int i = 0; i < this.counts.length; i++)
+        {
+            this.counts[i] = 0;
+        }
+    }
+
+
+    /**
+     * called once per drawing call, before its numeric arguments
+     *
+     * @param reference the non numeric argument of the call, if any
+     */
+    protected void command(final DrawCommand command, final Object reference)
+    {
+        this.counts[command.ordinal()]++;
+    }
+
+
+    /**
+     * called for each numeric argument of the last command, in order
+     */
+    protected void argument(final double value)
+    {
+
+    }
+
+
+    @Override
+    public GraphicsContext getGraphicsContext()
+    {
+        return null;
+    }
+
+
+    @Override
+    public void save()
+    {
+        this.command(DrawCommand.SAVE, null);
+    }
+
+
+    @Override
+    public void restore()
+    {
+        this.command(DrawCommand.RESTORE, null);
+    }
+
+
+    @Override
+    public void setTransform(final Affine transform)
+    {
+        this.command(DrawCommand.SET_TRANSFORM, null);
+        if (null == transform)
+        {
+            this.argument(1d);
+            this.argument(0d);
+            this.argument(0d);
+            this.argument(0d);
+            this.argument(1d);
+            this.argument(0d);
+        }
+        else
+        {
+            this.argument(transform.getMxx());
+            this.argument(transform.getMxy());
+            this.argument(transform.getTx());
+            this.argument(transform.getMyx());
+            this.argument(transform.getMyy());
+            this.argument(transform.getTy());
+        }
+    }
+
+
+    @Override
+    public void setFill(final Paint paint)
+    {
+        this.command(DrawCommand.SET_FILL, paint);
+    }
+
+
+    @Override
+    public void setStroke(final Paint paint)
+    {
+        this.command(DrawCommand.SET_STROKE, paint);
+    }
+
+
+    @Override
+    public void setLineWidth(final double width)
+    {
+        this.command(DrawCommand.SET_LINE_WIDTH, null);
+        this.argument(width);
+    }
+
+
+    @Override
+    public void setLineCap(final StrokeLineCap cap)
+    {
+        this.command(DrawCommand.SET_LINE_CAP, cap);
+    }
+
+
+    @Override
+    public void setLineJoin(final StrokeLineJoin join)
+    {
+        this.command(DrawCommand.SET_LINE_JOIN, join);
+    }
+
+
+    @Override
+    public void setFont(final Font font)
+    {
+        this.command(DrawCommand.SET_FONT, font);
+    }
+
+
+    @Override
+    public void setFontSmoothingType(final FontSmoothingType type)
+    {
+        this.command(DrawCommand.SET_FONT_SMOOTHING, type);
+    }
+
+
+    @Override
+    public void beginPath()
+    {
+        this.command(DrawCommand.BEGIN_PATH, null);
+    }
+
+
+    @Override
+    public void moveTo(final double x, final double y)
+    {
+        this.command(DrawCommand.MOVE_TO, null);
+        this.argument(x);
+        this.argument(y);
+    }
+
+
+    @Override
+    public void lineTo(final double x, final double y)
+    {
+        this.command(DrawCommand.LINE_TO, null);
+        this.argument(x);
+        this.argument(y);
+    }
+
+
+    @Override
+    public void quadraticCurveTo(final double xc, final double yc, final double x1, final double y1)
+    {
+        this.command(DrawCommand.QUADRATIC_CURVE_TO, null);
+        this.argument(xc);
+        this.argument(yc);
+        this.argument(x1);
+        this.argument(y1);
+    }
+
+
+    @Override
+    public void bezierCurveTo(final double xc1, final double yc1, final double xc2, final double yc2, final double x1, final double y1)
+    {
+        this.command(DrawCommand.BEZIER_CURVE_TO, null);
+        this.argument(xc1);
+        this.argument(yc1);
+        this.argument(xc2);
+        this.argument(yc2);
+        this.argument(x1);
+        this.argument(y1);
+    }
+
+
+    @Override
+    public void arc(final double centerX, final double centerY, final double radiusX, final double radiusY, final double startAngle, final double length)
+    {
+        this.command(DrawCommand.ARC, null);
+        this.argument(centerX);
+        this.argument(centerY);
+        this.argument(radiusX);
+        this.argument(radiusY);
+        this.argument(startAngle);
+        this.argument(length);
+    }
+
+
+    @Override
+    public void arcTo(final double x1, final double y1, final double x2, final double y2, final double radius)
+    {
+        this.command(DrawCommand.ARC_TO, null);
+        this.argument(x1);
+        this.argument(y1);
+        this.argument(x2);
+        this.argument(y2);
+        this.argument(radius);
+    }
+
+
+    @Override
+    public void rect(final double x, final double y, final double w, final double h)
+    {
+        this.command(DrawCommand.RECT, null);
+        this.argument(x);
+        this.argument(y);
+        this.argument(w);
+        this.argument(h);
+    }
+
+
+    @Override
+    public void closePath()
+    {
+        this.command(DrawCommand.CLOSE_PATH, null);
+    }
+
+
+    @Override
+    public void fill()
+    {
+        this.command(DrawCommand.FILL, null);
+    }
+
+
+    @Override
+    public void stroke()
+    {
+        this.command(DrawCommand.STROKE, null);
+    }
+
+
+    @Override
+    public void fillRect(final double x, final double y, final double w, final double h)
+    {
+        this.command(DrawCommand.FILL_RECT, null);
+        this.argument(x);
+        this.argument(y);
+        this.argument(w);
+        this.argument(h);
+    }
+
+
+    @Override
+    public void strokeRect(final double x, final double y, final double w, final double h)
+    {
+        this.command(DrawCommand.STROKE_RECT, null);
+        this.argument(x);
+        this.argument(y);
+        this.argument(w);
+        this.argument(h);
+    }
+
+
+    @Override
+    public void clearRect(final double x, final double y, final double w, final double h)
+    {
+        this.command(DrawCommand.CLEAR_RECT, null);
+        this.argument(x);
+        this.argument(y);
+        this.argument(w);
+        this.argument(h);
+    }
+
+
+    @Override
+    public void fillOval(final double x, final double y, final double w, final double h)
+    {
+        this.command(DrawCommand.FILL_OVAL, null);
+        this.argument(x);
+        this.argument(y);
+        this.argument(w);
+        this.argument(h);
+    }
+
+
+    @Override
+    public void strokeOval(final double x, final double y, final double w, final double h)
+    {
+        this.command(DrawCommand.STROKE_OVAL, null);
+        this.argument(x);
+        this.argument(y);
+        this.argument(w);
+        this.argument(h);
+    }
+
+
+    @Override
+    public void fillRoundRect(final double x, final double y, final double w, final double h, final double arcWidth, final double arcHeight)
+    {
+        this.command(DrawCommand.FILL_ROUND_RECT, null);
+        this.argument(x);
+        this.argument(y);
+        this.argument(w);
+        this.argument(h);
+        this.argument(arcWidth);
+        this.argument(arcHeight);
+    }
+
+
+    @Override
+    public void strokeRoundRect(final double x, final double y, final double w, final double h, final double arcWidth, final double arcHeight)
+    {
+        this.command(DrawCommand.STROKE_ROUND_RECT, null);
+        this.argument(x);
+        this.argument(y);
+        this.argument(w);
+        this.argument(h);
+        this.argument(arcWidth);
+        this.argument(arcHeight);
+    }
+
+
+    @Override
+    public void strokeLine(final double x1, final double y1, final double x2, final double y2)
+    {
+        this.command(DrawCommand.STROKE_LINE, null);
+        this.argument(x1);
+        this.argument(y1);
+        this.argument(x2);
+        this.argument(y2);
+    }
+
+
+    @Override
+    public void fillText(final String text, final double x, final double y)
+    {
+        this.command(DrawCommand.FILL_TEXT, text);
+        this.argument(x);
+        this.argument(y);
+    }
+
+
+    @Override
+    public void strokeText(final String text, final double x, final double y)
+    {
+        this.command(DrawCommand.STROKE_TEXT, text);
+        this.argument(x);
+        this.argument(y);
+    }
+
+
+    @Override
+    public void drawImage(final Image image, final double x, final double y)
+    {
+        this.command(DrawCommand.DRAW_IMAGE, image);
+        this.argument(x);
+        this.argument(y);
+    }
+
+
+    @Override
+    public void drawImage(final Image image, final double x, final double y, final double w, final double h)
+    {
+        this.command(DrawCommand.DRAW_SCALED_IMAGE, image);
+        this.argument(x);
+        this.argument(y);
+        this.argument(w);
+        this.argument(h);
+    }
+}
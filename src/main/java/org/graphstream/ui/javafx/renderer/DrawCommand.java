@@ -0,0 +1,87 @@
+/*
+ * Copyright 2006 - 2013
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.ui.javafx.renderer;
+
+/**
+ * the kinds of call a {@link DrawContext} receives, with the number of numeric
+ * arguments each one carries
+ */
+public enum DrawCommand
+{
+    SAVE(0),
+    RESTORE(0),
+    SET_TRANSFORM(6),
+    SET_FILL(0),
+    SET_STROKE(0),
+    SET_LINE_WIDTH(1),
+    SET_LINE_CAP(0),
+    SET_LINE_JOIN(0),
+    SET_FONT(0),
+    SET_FONT_SMOOTHING(0),
+    BEGIN_PATH(0),
+    MOVE_TO(2),
+    LINE_TO(2),
+    QUADRATIC_CURVE_TO(4),
+    BEZIER_CURVE_TO(6),
+    ARC(6),
+    ARC_TO(5),
+    RECT(4),
+    CLOSE_PATH(0),
+    FILL(0),
+    STROKE(0),
+    FILL_RECT(4),
+    STROKE_RECT(4),
+    CLEAR_RECT(4),
+    FILL_OVAL(4),
+    STROKE_OVAL(4),
+    FILL_ROUND_RECT(6),
+    STROKE_ROUND_RECT(6),
+    STROKE_LINE(4),
+    FILL_TEXT(2),
+    STROKE_TEXT(2),
+    DRAW_IMAGE(2),
+    DRAW_SCALED_IMAGE(4);
+
+    private final int arity;
+
+
+    DrawCommand(final int arity)
+    {
+        this.arity = arity;
+    }
+
+
+    public int getArity()
+    {
+        return this.arity;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2006 - 2013
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.ui.javafx.renderer;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.shape.StrokeLineJoin;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontSmoothingType;
+import javafx.scene.transform.Affine;
+
+/**
+ * the drawing calls the renderers make, mirroring {@link GraphicsContext}
+ * <p>
+ * Rendering against this interface rather than a canvas lets a whole frame be
+ * drawn, counted or recorded without a live JavaFX stage.
+ */
+public interface DrawContext
+{
+    /**
+     * @return the canvas context drawn into, or null when there is none (headless backends)
+     */
+    GraphicsContext getGraphicsContext();
+
+    void save();
+
+    void restore();
+
+    void setTransform(Affine transform);
+
+    void setFill(Paint paint);
+
+    void setStroke(Paint paint);
+
+    void setLineWidth(double width);
+
+    void setLineCap(StrokeLineCap cap);
+
+    void setLineJoin(StrokeLineJoin join);
+
+    void setFont(Font font);
+
+    void setFontSmoothingType(FontSmoothingType type);
+
+    void beginPath();
+
+    void moveTo(double x, double y);
+
+    void lineTo(double x, double y);
+
+    void quadraticCurveTo(double xc, double yc, double x1, double y1);
+
+    void bezierCurveTo(double xc1, double yc1, double xc2, double yc2, double x1, double y1);
+
+    void arc(double centerX, double centerY, double radiusX, double radiusY, double startAngle, double length);
+
+    void arcTo(double x1, double y1, double x2, double y2, double radius);
+
+    void rect(double x, double y, double w, double h);
+
+    void closePath();
+
+    void fill();
+
+    void stroke();
+
+    void fillRect(double x, double y, double w, double h);
+
+    void strokeRect(double x, double y, double w, double h);
+
+    void clearRect(double x, double y, double w, double h);
+
+    void fillOval(double x, double y, double w, double h);
+
+    void strokeOval(double x, double y, double w, double h);
+
+    void fillRoundRect(double x, double y, double w, double h, double arcWidth, double arcHeight);
+
+    void strokeRoundRect(double x, double y, double w, double h, double arcWidth, double arcHeight);
+
+    void strokeLine(double x1, double y1, double x2, double y2);
+
+    void fillText(String text, double x, double y);
+
+    void strokeText(String text, double x, double y);
+
+    void drawImage(Image image, double x, double y);
+
+    void drawImage(Image image, double x, double y, double w, double h);
+}
@@ -33,14 +33,12 @@ package org.graphstream.ui.javafx.renderer;
 
 import javafx.geometry.Point2D;
 import javafx.geometry.Rectangle2D;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 import javafx.scene.shape.StrokeLineCap;
 import javafx.scene.shape.StrokeLineJoin;
 import javafx.scene.transform.Affine;
 import org.graphstream.ui.graphicGraph.GraphicEdge;
 import org.graphstream.ui.graphicGraph.GraphicElement;
-import org.graphstream.ui.graphicGraph.GraphicNode;
 import org.graphstream.ui.graphicGraph.StyleGroup;
 import org.graphstream.ui.graphicGraph.stylesheet.StyleConstants;
 import org.graphstream.ui.graphicGraph.stylesheet.StyleConstants.ArrowShape;
@@ -48,8 +46,10 @@ import org.graphstream.ui.graphicGraph.stylesheet.StyleConstants.SizeMode;
 import org.graphstream.ui.javafx.util.Approximations;
 import org.graphstream.ui.javafx.util.IconManager;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -57,6 +57,8 @@ import java.util.TreeSet;
 
 public class EdgeRenderer extends ElementRenderer
 {
+    private static final int maxBatchSegments = 8192;
+
     private double lineWidth = 1;
 
     private double arrowLength = 0;
@@ -65,23 +67,60 @@ public class EdgeRenderer extends ElementRenderer
 
     private final Set<String> renderedEdges = new TreeSet<>();
 
+    private final double[] point = new double[2];
+
+    private boolean batching = false;
+
+    private ResolvedStyle current = null;
+
+    private double[] lines = new double[256];
+
+    private int numLines = 0;
+
+    private double[] arrows = new double[384];
+
+    private int numArrows = 0;
+
+    private final List<GraphicEdge> decorated = new ArrayList<>();
+
 
     @Override
     public void clear()
     {
         super.clear();
         this.renderedEdges.clear();
+        this.numLines = 0;
+        this.numArrows = 0;
+        this.decorated.clear();
+    }
+
+
+    @Override
+    protected void beginBatch(final StyleGroup group, final DrawContext g, final FxCamera camera)
+    {
+        this.batching = true;
+    }
+
+
+    @Override
+    protected void endBatch(final StyleGroup group, final DrawContext g, final FxCamera camera)
+    {
+        this.flush(group, g, camera);
+        this.batching = false;
     }
 
 
     @Override
-    protected void pushDynStyle(final StyleGroup group, final GraphicsContext g, final FxCamera camera, final GraphicElement element)
+    protected void pushDynStyle(final StyleGroup group, final DrawContext g, final FxCamera camera, final GraphicElement element)
     {
+        // accumulated edges were meant for the previous style
+        this.flush(group, g, camera);
+        this.current = this.getStyle(group);
         super.pushDynStyle(group, g, camera, element);
 
         if (SizeMode.DYN_SIZE.equals(group.getSizeMode()))
         {
-            this.lineWidth = camera.getMetrics().lengthToGu(StyleConstants.convertValue(element.getAttribute("ui.size")));
+            this.lineWidth = this.limitWidth(camera.getMetrics().lengthToGu(StyleConstants.convertValue(element.getAttribute("ui.size"))));
             g.setLineWidth(this.lineWidth);
             g.setLineCap(StrokeLineCap.BUTT);
             g.setLineJoin(StrokeLineJoin.BEVEL);
@@ -90,18 +129,20 @@ public class EdgeRenderer extends ElementRenderer
 
 
     @Override
-    protected void pushStyle(final StyleGroup group, final GraphicsContext g, final FxCamera camera)
+    protected void pushStyle(final StyleGroup group, final DrawContext g, final FxCamera camera)
     {
+        this.flush(group, g, camera);
         super.pushStyle(group, g, camera);
 
-        this.lineWidth = group.getStrokeWidth().doubleValue();
-        this.arrowLength = group.getArrowSize().get(0);
-        this.arrowWidth = group.getArrowSize().get(0);
+        this.current = this.getStyle(group);
+        this.lineWidth = this.limitWidth(this.current.getStrokeWidth());
+        this.arrowLength = this.current.getArrowLength();
+        this.arrowWidth = this.current.getArrowWidth();
     }
 
 
     @Override
-    protected ElementContext computeElement(final StyleGroup group, final GraphicsContext g, final FxCamera camera, final GraphicElement element)
+    protected ElementContext computeElement(final StyleGroup group, final DrawContext g, final FxCamera camera, final GraphicElement element)
     {
         // no context, no ability to click on edge for now
         return null;
@@ -109,20 +150,20 @@ public class EdgeRenderer extends ElementRenderer
 
 
     @Override
-    protected void elementInvisible(StyleGroup group, GraphicsContext g, FxCamera camera, GraphicElement element)
+    protected void elementInvisible(StyleGroup group, DrawContext g, FxCamera camera, GraphicElement element)
     {
 
     }
 
 
     @Override
-    protected void renderElement(final StyleGroup group, final GraphicsContext g, final FxCamera camera, final GraphicElement element)
+    protected void renderElement(final StyleGroup group, final DrawContext g, final FxCamera camera, final GraphicElement element)
     {
         // grab edge, node positions
         final GraphicEdge edge = (GraphicEdge) element;
-        final ElementContext node0 = camera.getElement(edge.getNode0().getId());
-        final ElementContext node1 = camera.getElement(edge.getNode1().getId());
-        if (null == node0 || null == node1)
+        final int slot0 = camera.getNodeSlot(edge.getNode0());
+        final int slot1 = camera.getNodeSlot(edge.getNode1());
+        if (slot0 < 0 || slot1 < 0)
         {
             return;
         }
@@ -134,27 +175,37 @@ public class EdgeRenderer extends ElementRenderer
             return;
         }
 
-        // render line        
-        final Point2D pos0 = node0.getPosition();
-        final Point2D pos1 = node1.getPosition();
-        Point2D start0 = node0.intersects(pos0.getX(), pos0.getY(), pos1.getX(), pos1.getY());
-        if (null == start0)
+        // render line, clipped to the node bounds
+        final NodeGeometry geometry = camera.getNodeGeometry();
+        final double x0 = geometry.getX(slot0);
+        final double y0 = geometry.getY(slot0);
+        final double x1 = geometry.getX(slot1);
+        final double y1 = geometry.getY(slot1);
+        double startX = x0;
+        double startY = y0;
+        double endX = x1;
+        double endY = y1;
+        if (geometry.boundaryPoint(slot0, x1, y1, this.point))
         {
-            start0 = pos0;
+            startX = this.point[0];
+            startY = this.point[1];
         }
-        Point2D start1 = node1.intersects(pos1.getX(), pos1.getY(), pos0.getX(), pos0.getY());
-        if (null == start1)
+        if (geometry.boundaryPoint(slot1, x0, y0, this.point))
         {
-            start1 = pos1;
+            endX = this.point[0];
+            endY = this.point[1];
         }
-        g.strokeLine(start0.getX(), start0.getY(), start1.getX(), start1.getY());
+        this.addLine(startX, startY, endX, endY);
+
+        // short edges go without arrows and icons
+        final boolean detailed = this.screenLength(geometry, slot0, slot1) >= this.getLevelOfDetail().getArrowLength();
 
         // render arrow
-        if (edge.isDirected())
+        if (detailed && edge.isDirected())
         {
             renderArrow(group, g, camera, edge);
         }
-        if (edgeGroup != null)
+        if (detailed && edgeGroup != null)
         {
             // render other side arrow (if applicable)
             for (final GraphicEdge otherEdge : edgeGroup.getEdges())
@@ -167,20 +218,16 @@ public class EdgeRenderer extends ElementRenderer
             }
         }
 
-        // render icon at midpoint
-        final Point2D midpoint = new Point2D((pos0.getX() + pos1.getX()) / 2d, (pos0.getY() + pos1.getY()) / 2d);
-        if (edgeGroup != null)
+        // icons go on top of every line and arrow of the batch, labels are drawn by the text pass after it
+        if (detailed && this.current.getIcon() != null)
         {
-            this.renderIcon(group, g, camera, midpoint, edgeGroup.getEdges());
+            this.decorated.add(edge);
         }
-        else
+        if (!this.batching || this.numLines >= maxBatchSegments)
         {
-            this.renderIcon(group, g, camera, midpoint, Arrays.asList(edge));
+            this.flush(group, g, camera);
         }
 
-        // render text
-        this.renderText(group, g, camera, element);
-
         // keep track of rendered edges when we have edge groups
         if (edgeGroup != null)
         {
@@ -193,7 +240,7 @@ public class EdgeRenderer extends ElementRenderer
     }
 
 
-    private Rectangle2D renderIcon(final StyleGroup group, final GraphicsContext g, final FxCamera camera, final Point2D midpoint, final Collection<GraphicEdge> edges)
+    private Rectangle2D renderIcon(final StyleGroup group, final DrawContext g, final FxCamera camera, final Point2D midpoint, final Collection<GraphicEdge> edges)
     {
         if (null == edges || edges.isEmpty())
         {
@@ -206,13 +253,14 @@ public class EdgeRenderer extends ElementRenderer
         for (final GraphicEdge edge : edges)
         {
             final String iconName;
-            if ("dyn-icon".equalsIgnoreCase(group.getIcon()) || "dynamic".equalsIgnoreCase(group.getIcon()))
+            final String iconType = this.getStyle(group).getIcon();
+            if ("dyn-icon".equalsIgnoreCase(iconType) || "dynamic".equalsIgnoreCase(iconType))
             {
                 iconName = edge.getAttribute("ui.icon");
             }
             else
             {
-                iconName = group.getIcon();
+                iconName = iconType;
             }
 
             if (iconName != null && !icons.containsKey(iconName))
@@ -270,11 +318,12 @@ public class EdgeRenderer extends ElementRenderer
         g.setTransform(transform);
 
         // render shape
-        if (!StyleConstants.FillMode.NONE.equals(group.getFillMode()))
+        final ResolvedStyle style = this.getStyle(group);
+        if (style.isFilled())
         {
             g.fillRoundRect(-width / 2d, -height / 2d, width, height, 4, 4);
         }
-        if (!StyleConstants.StrokeMode.NONE.equals(group.getStrokeMode()))
+        if (style.isStroked())
         {
             g.strokeRoundRect(-width / 2d, -height / 2d, width, height, 4, 4);
         }
@@ -290,7 +339,7 @@ public class EdgeRenderer extends ElementRenderer
         {
             if (icon != null)
             {
-                g.drawImage(icon, x, y);
+                drawIcon(g, icon, x + (this.getWidth() / 2d), y + (this.getHeight() / 2d), this.getWidth(), this.getHeight());
             }
             col++;
             if (rows > 1 && col >= columns)
@@ -309,13 +358,17 @@ public class EdgeRenderer extends ElementRenderer
     }
 
 
-    private void renderArrow(final StyleGroup group, final GraphicsContext g, final FxCamera camera, final GraphicEdge edge)
+    private void renderArrow(final StyleGroup group, final DrawContext g, final FxCamera camera, final GraphicEdge edge)
     {
+        if (this.getQuality() < QualityGovernor.arrowsLevel)
+        {
+            return;
+        }
         if (!edge.isDirected())
         {
             return;
         }
-        if (ArrowShape.NONE.equals(group.getArrowShape()))
+        if (ArrowShape.NONE.equals(this.current.getArrowShape()))
         {
             return;
         }
@@ -324,52 +377,175 @@ public class EdgeRenderer extends ElementRenderer
             return;
         }
 
-        GraphicNode node0 = edge.getNode0();
-        GraphicNode node1 = edge.getNode1();
-        ElementContext ctx0 = camera.getElement(node0.getId());
-        ElementContext ctx1 = camera.getElement(node1.getId());
-        if (null == ctx0 || null == ctx1)
+        final int slot0 = camera.getNodeSlot(edge.getNode0());
+        final int slot1 = camera.getNodeSlot(edge.getNode1());
+        if (slot0 < 0 || slot1 < 0)
         {
             return;
         }
 
-        Point2D pos0 = camera.graphToScreen(new Point2D(node0.getX(), node0.getY()));
-        Point2D pos1 = camera.graphToScreen(new Point2D(node1.getX(), node1.getY()));
-        Point2D arrowCenter = ctx1.intersects(pos0.getX(), pos0.getY(), pos1.getX(), pos1.getY());
-        if (null == arrowCenter)
+        final NodeGeometry geometry = camera.getNodeGeometry();
+        final double x0 = geometry.getX(slot0);
+        final double y0 = geometry.getY(slot0);
+        final double x1 = geometry.getX(slot1);
+        final double y1 = geometry.getY(slot1);
+        if (!geometry.boundaryPoint(slot1, x0, y0, this.point))
         {
             return;
         }
-
-        Affine transform = new Affine();
-        double deltax = pos1.getX() - pos0.getX();
-        double deltay = pos1.getY() - pos0.getY();
-        transform.appendTranslation(arrowCenter.getX(), arrowCenter.getY() + this.getPadding());
+        final double tipX = this.point[0];
+        final double tipY = this.point[1];
+
+        // unit direction of the edge, the base corners sit one arrow length behind the tip
+        final double deltax = x1 - x0;
+        final double deltay = y1 - y0;
+        double ux;
+        double uy;
         if (Approximations.approximatelyEquals(deltay, 0d, 0.00001d))
         {
-            transform.appendRotation(deltax > 0 ? 90d : 270d);
+            ux = deltax > 0 ? 1d : -1d;
+            uy = 0d;
         }
         else
         {
-            transform.appendRotation(90 + Math.toDegrees(Math.atan2(deltay, deltax)));
+            final double length = Math.sqrt(deltax * deltax + deltay * deltay);
+            ux = deltax / length;
+            uy = deltay / length;
         }
-        double halfWidth = this.arrowWidth / 2d;
-        Point2D arrowLeft = transform.transform(new Point2D(-halfWidth, this.arrowLength));
-        Point2D arrowRight = transform.transform(new Point2D(halfWidth, this.arrowLength));
+        final double halfWidth = this.arrowWidth / 2d;
+        final double baseX = tipX - this.arrowLength * ux;
+        final double baseY = tipY + this.getPadding() - this.arrowLength * uy;
 
-        g.beginPath();
-        g.moveTo(arrowLeft.getX(), arrowLeft.getY());
-        g.lineTo(arrowCenter.getX(), arrowCenter.getY());
-        g.lineTo(arrowRight.getX(), arrowRight.getY());
-        g.lineTo(arrowLeft.getX(), arrowLeft.getY());
-        g.closePath();
-        if (!StyleConstants.FillMode.NONE.equals(group.getFillMode()))
+        if (this.numArrows * 6 + 6 > this.arrows.length)
         {
-            g.fill();
+            this.arrows = Arrays.copyOf(this.arrows, this.arrows.length * 2);
         }
-        if (!StyleConstants.StrokeMode.NONE.equals(group.getStrokeMode()))
+        final int offset = this.numArrows * 6;
+        this.arrows[offset] = baseX + halfWidth * uy;
+        this.arrows[offset + 1] = baseY - halfWidth * ux;
+        this.arrows[offset + 2] = tipX;
+        this.arrows[offset + 3] = tipY;
+        this.arrows[offset + 4] = baseX - halfWidth * uy;
+        this.arrows[offset + 5] = baseY + halfWidth * ux;
+        this.numArrows++;
+    }
+
+
+    private void addLine(final double x0, final double y0, final double x1, final double y1)
+    {
+        if (this.numLines * 4 + 4 > this.lines.length)
         {
+            this.lines = Arrays.copyOf(this.lines, this.lines.length * 2);
+        }
+        final int offset = this.numLines * 4;
+        this.lines[offset] = x0;
+        this.lines[offset + 1] = y0;
+        this.lines[offset + 2] = x1;
+        this.lines[offset + 3] = y1;
+        this.numLines++;
+    }
+
+
+    /**
+     * submit every accumulated line as one stroked path and every arrow as one
+     * filled path, then draw icons and labels over them
+     */
+    private void flush(final StyleGroup group, final DrawContext g, final FxCamera camera)
+    {
+        if (this.numLines > 0)
+        {
+            g.beginPath();
+            for (int i = 0; i < this.numLines * 4; i += 4)
+            {
+                g.moveTo(this.lines[i], this.lines[i + 1]);
+                g.lineTo(this.lines[i + 2], this.lines[i + 3]);
+            }
             g.stroke();
+            this.numLines = 0;
+        }
+
+        if (this.numArrows > 0)
+        {
+            g.beginPath();
+            for (int i = 0; i < this.numArrows * 6; i += 6)
+            {
+                g.moveTo(this.arrows[i], this.arrows[i + 1]);
+                g.lineTo(this.arrows[i + 2], this.arrows[i + 3]);
+                g.lineTo(this.arrows[i + 4], this.arrows[i + 5]);
+                g.closePath();
+            }
+            if (this.current.isFilled())
+            {
+                g.fill();
+            }
+            if (this.current.isStroked())
+            {
+                g.stroke();
+            }
+            this.numArrows = 0;
         }
+
+        if (this.decorated.isEmpty())
+        {
+            return;
+        }
+        final NodeGeometry geometry = camera.getNodeGeometry();
+        g.save();
+        for (final GraphicEdge edge : this.decorated)
+        {
+            // render icon at midpoint
+            final int slot0 = camera.getNodeSlot(edge.getNode0());
+            final int slot1 = camera.getNodeSlot(edge.getNode1());
+            final Point2D midpoint = new Point2D((geometry.getX(slot0) + geometry.getX(slot1)) / 2d, (geometry.getY(slot0) + geometry.getY(slot1)) / 2d);
+            final GraphicEdge.EdgeGroup edgeGroup = edge.getGroup();
+            if (edgeGroup != null)
+            {
+                this.renderIcon(group, g, camera, midpoint, edgeGroup.getEdges());
+            }
+            else
+            {
+                this.renderIcon(group, g, camera, midpoint, Arrays.asList(edge));
+            }
+        }
+        g.restore();
+        this.decorated.clear();
+    }
+
+
+    private double screenLength(final NodeGeometry geometry, final int slot0, final int slot1)
+    {
+        return Math.hypot(geometry.getX(slot1) - geometry.getX(slot0), geometry.getY(slot1) - geometry.getY(slot0));
+    }
+
+
+    /**
+     * edge labels are anchored on the midpoint between the two node centres
+     */
+    @Override
+    protected boolean labelBox(final FxCamera camera, final GraphicElement element, final double[] out)
+    {
+        final GraphicEdge edge = (GraphicEdge) element;
+        final int slot0 = camera.getNodeSlot(edge.getNode0());
+        final int slot1 = camera.getNodeSlot(edge.getNode1());
+        if (slot0 < 0 || slot1 < 0)
+        {
+            return false;
+        }
+        final NodeGeometry geometry = camera.getNodeGeometry();
+        out[0] = (geometry.getX(slot0) + geometry.getX(slot1)) / 2d;
+        out[1] = (geometry.getY(slot0) + geometry.getY(slot1)) / 2d;
+        out[2] = 0d;
+        out[3] = 0d;
+        return true;
+    }
+
+
+    @Override
+    protected boolean isLabelSized(final FxCamera camera, final GraphicElement element)
+    {
+        final GraphicEdge edge = (GraphicEdge) element;
+        final int slot0 = camera.getNodeSlot(edge.getNode0());
+        final int slot1 = camera.getNodeSlot(edge.getNode1());
+        return slot0 < 0 || slot1 < 0 || this.screenLength(camera.getNodeGeometry(), slot0, slot1) >= this.getLevelOfDetail().getLabelSize();
     }
 }
@@ -31,9 +31,6 @@
  */
 package org.graphstream.ui.javafx.renderer;
 
-import com.sun.javafx.tk.Toolkit;
-import javafx.geometry.Point2D;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
@@ -46,11 +43,12 @@ import org.graphstream.ui.graphicGraph.stylesheet.StyleConstants;
 import org.graphstream.ui.graphicGraph.stylesheet.Value;
 import org.graphstream.ui.graphicGraph.stylesheet.Values;
 import org.graphstream.ui.javafx.util.Approximations;
-import org.graphstream.ui.javafx.util.FontCache;
 import org.graphstream.ui.javafx.util.IconManager;
 import org.graphstream.ui.javafx.util.SwingUtils;
+import org.graphstream.ui.javafx.util.TextWidthCache;
 
 import java.awt.geom.PathIterator;
+import java.util.BitSet;
 
 
 public abstract class ElementRenderer
@@ -75,6 +73,26 @@ public abstract class ElementRenderer
 
     private double paddingY = 0d;
 
+    private final BitSet visible = new BitSet();
+
+    private int drawnCount = 0;
+
+    private int culledCount = 0;
+
+    private StyleCache styleCache = null;
+
+    private boolean eventsActive = false;
+
+    private int quality = QualityGovernor.maxLevel;
+
+    private LevelOfDetail detail = new LevelOfDetail();
+
+    private long styleNanos = 0;
+
+    private long textNanos = 0;
+
+    private final double[] labelBox = new double[4];
+
 
     public ElementRenderer()
     {
@@ -112,6 +130,18 @@ public abstract class ElementRenderer
     }
 
 
+    public final int getMinFontSize()
+    {
+        return this.minFontSize;
+    }
+
+
+    public final int getMaxFontSize()
+    {
+        return this.maxFontSize;
+    }
+
+
     public final boolean isAutoScale()
     {
         return this.autoScale;
@@ -124,21 +154,111 @@ public abstract class ElementRenderer
     }
 
 
+    public final int getQuality()
+    {
+        return this.quality;
+    }
+
+
+    /**
+     * @param quality a {@link QualityGovernor} level deciding which details are drawn
+     */
+    public final void setQuality(final int quality)
+    {
+        this.quality = quality;
+    }
+
+
+    public final LevelOfDetail getLevelOfDetail()
+    {
+        return this.detail;
+    }
+
+
+    /**
+     * @param detail the size thresholds of the group about to be rendered
+     */
+    public final void setLevelOfDetail(final LevelOfDetail detail)
+    {
+        if (null == detail)
+        {
+            throw new IllegalArgumentException("Level of detail cannot be null.");
+        }
+        this.detail = detail;
+    }
+
+
+    public final void setStyleCache(final StyleCache styleCache)
+    {
+        this.styleCache = styleCache;
+    }
+
+
+    /**
+     * @return the resolved style of the group, freshly built while element events alter it
+     */
+    protected final ResolvedStyle getStyle(final StyleGroup group)
+    {
+        if (null == this.styleCache || this.eventsActive)
+        {
+            return new ResolvedStyle(group);
+        }
+        return this.styleCache.get(group);
+    }
+
+
     public void clear()
     {
+        this.drawnCount = 0;
+        this.culledCount = 0;
+        this.styleNanos = 0;
+        this.textNanos = 0;
+    }
+
 
+    public final int getDrawnCount()
+    {
+        return this.drawnCount;
     }
 
 
-    public final void render(final StyleGroup group, final GraphicsContext g, final FxCamera camera)
+    public final int getCulledCount()
     {
+        return this.culledCount;
+    }
+
+
+    /**
+     * @return the time spent setting up group styles since the last {@link #clear()}, in nanoseconds
+     */
+    public final long getStyleNanos()
+    {
+        return this.styleNanos;
+    }
+
+
+    /**
+     * @return the time spent drawing labels since the last {@link #clear()}, in nanoseconds
+     */
+    public final long getTextNanos()
+    {
+        return this.textNanos;
+    }
+
+
+    public final void render(final StyleGroup group, final DrawContext g, final FxCamera camera)
+    {
+        long start = System.nanoTime();
         this.setupRenderingPass(group, g, camera);
 
         this.pushStyle(group, g, camera);
+        this.styleNanos += System.nanoTime() - start;
+        int index = 0;
+        this.beginBatch(group, g, camera);
         for (final Element e : group.bulkElements())
         {
             final GraphicElement ge = (GraphicElement) e;
-            if (camera.isVisible(ge))
+            if (this.checkVisible(camera, ge, index++))
             {
                 renderElement(group, g, camera, ge);
             }
@@ -147,19 +267,30 @@ public abstract class ElementRenderer
                 elementInvisible(group, g, camera, ge);
             }
         }
+        this.endBatch(group, g, camera);
+        start = System.nanoTime();
+        index = 0;
         for (final Element e : group.bulkElements())
         {
             final GraphicElement ge = (GraphicElement) e;
-            this.renderText(group, g, camera, ge);
+            if (this.visible.get(index++))
+            {
+                this.renderText(group, g, camera, ge);
+            }
         }
+        this.textNanos += System.nanoTime() - start;
 
+        start = System.nanoTime();
         this.pushStyle(group, g, camera);
+        this.styleNanos += System.nanoTime() - start;
         if (group.hasDynamicElements())
         {
+            index = 0;
+            this.beginBatch(group, g, camera);
             for (final Element e : group.dynamicElements())
             {
                 final GraphicElement ge = (GraphicElement) e;
-                if (camera.isVisible(ge))
+                if (this.checkVisible(camera, ge, index++))
                 {
                     if (!group.elementHasEvents(ge))
                     {
@@ -172,27 +303,37 @@ public abstract class ElementRenderer
                     elementInvisible(group, g, camera, ge);
                 }
             }
+            this.endBatch(group, g, camera);
+            start = System.nanoTime();
+            index = 0;
             for (final Element e : group.dynamicElements())
             {
                 final GraphicElement ge = (GraphicElement) e;
-                if (camera.isVisible(ge))
+                if (this.visible.get(index++))
                 {
                     this.renderText(group, g, camera, ge);
                 }
             }
+            this.textNanos += System.nanoTime() - start;
         }
 
+        start = System.nanoTime();
         this.pushStyle(group, g, camera);
+        this.styleNanos += System.nanoTime() - start;
         if (group.hasEventElements())
         {
+            index = 0;
+            this.beginBatch(group, g, camera);
             for (final ElementEvents e : group.elementsEvents())
             {
                 final GraphicElement ge = (GraphicElement) e.getElement();
-                if (camera.isVisible(ge))
+                if (this.checkVisible(camera, ge, index++))
                 {
                     e.activate();
+                    this.eventsActive = true;
                     pushStyle(group, g, camera);
                     renderElement(group, g, camera, ge);
+                    this.eventsActive = false;
                     e.deactivate();
                 }
                 else
@@ -200,28 +341,100 @@ public abstract class ElementRenderer
                     elementInvisible(group, g, camera, ge);
                 }
             }
+            this.endBatch(group, g, camera);
+            start = System.nanoTime();
+            index = 0;
             for (final ElementEvents e : group.elementsEvents())
             {
                 final GraphicElement ge = (GraphicElement) e.getElement();
-                if (camera.isVisible(ge))
+                if (this.visible.get(index++))
                 {
                     this.renderText(group, g, camera, ge);
                 }
             }
+            this.textNanos += System.nanoTime() - start;
+        }
+    }
+
+
+    private boolean checkVisible(final FxCamera camera, final GraphicElement element, final int index)
+    {
+        // remember the result so the text pass does not test again
+        final boolean visible = camera.isVisible(element);
+        this.visible.set(index, visible);
+        if (visible)
+        {
+            this.drawnCount++;
+        }
+        else
+        {
+            this.culledCount++;
         }
+        return visible;
+    }
+
+
+    protected abstract ElementContext computeElement(StyleGroup group, DrawContext g, FxCamera camera, GraphicElement element);
+
+
+    protected abstract void renderElement(StyleGroup group, DrawContext g, FxCamera camera, GraphicElement element);
+
+
+    protected abstract void elementInvisible(StyleGroup group, DrawContext g, FxCamera camera, GraphicElement element);
+
+
+    /**
+     * called before a run of {@link #renderElement} calls sharing the current style, so that
+     * subclasses may accumulate drawing commands instead of issuing them one by one
+     */
+    protected void beginBatch(StyleGroup group, DrawContext g, FxCamera camera)
+    {
+
     }
 
 
-    protected abstract ElementContext computeElement(StyleGroup group, GraphicsContext g, FxCamera camera, GraphicElement element);
+    /**
+     * called after a run of {@link #renderElement} calls, any accumulated drawing must be
+     * submitted here
+     */
+    protected void endBatch(StyleGroup group, DrawContext g, FxCamera camera)
+    {
 
+    }
 
-    protected abstract void renderElement(StyleGroup group, GraphicsContext g, FxCamera camera, GraphicElement element);
+
+    /**
+     * @return true if the element is large enough on screen for its label, see {@link LevelOfDetail#getLabelSize()}
+     */
+    protected boolean isLabelSized(FxCamera camera, GraphicElement element)
+    {
+        return true;
+    }
 
 
-    protected abstract void elementInvisible(StyleGroup group, GraphicsContext g, FxCamera camera, GraphicElement element);
+    /**
+     * find where the label of an element is laid out on screen
+     *
+     * @param out receives the x/y of the anchor and the width/height of the box the label is aligned with
+     * @return false if the element has no screen position this frame
+     */
+    protected boolean labelBox(FxCamera camera, GraphicElement element, double[] out)
+    {
+        final int slot = camera.getNodeSlot(element);
+        if (slot < 0)
+        {
+            return false;
+        }
+        final NodeGeometry geometry = camera.getNodeGeometry();
+        out[0] = geometry.getX(slot);
+        out[1] = geometry.getY(slot);
+        out[2] = geometry.getHalfWidth(slot) * 2d;
+        out[3] = geometry.getHalfHeight(slot) * 2d;
+        return true;
+    }
 
 
-    protected void setupRenderingPass(StyleGroup group, GraphicsContext g, FxCamera camera)
+    protected void setupRenderingPass(StyleGroup group, DrawContext g, FxCamera camera)
     {
         this.pushTextStyle(group, g, camera);
         this.pushFillStyle(group, g);
@@ -229,7 +442,7 @@ public abstract class ElementRenderer
     }
 
 
-    protected void pushStyle(StyleGroup group, GraphicsContext g, FxCamera camera)
+    protected void pushStyle(StyleGroup group, DrawContext g, FxCamera camera)
     {
         this.configureSize(group, g, camera, null);
         this.pushFillStyle(group, g);
@@ -237,12 +450,22 @@ public abstract class ElementRenderer
     }
 
 
-    protected void pushDynStyle(StyleGroup group, GraphicsContext g, FxCamera camera, GraphicElement element)
+    /**
+     * resolve only the size and padding of an element, as needed by {@link #computeElement}
+     */
+    protected void pushGeometry(StyleGroup group, DrawContext g, FxCamera camera, GraphicElement element)
+    {
+        this.configureSize(group, g, camera, element);
+    }
+
+
+    protected void pushDynStyle(StyleGroup group, DrawContext g, FxCamera camera, GraphicElement element)
     {
         this.configureSize(group, g, camera, element);
 
-        Color fill = SwingUtils.fromAwt(group.getFillColor(0));
-        if (element != null && StyleConstants.FillMode.DYN_PLAIN.equals(group.getFillMode()))
+        final ResolvedStyle style = this.getStyle(group);
+        Color fill = style.getFillColor();
+        if (element != null && StyleConstants.FillMode.DYN_PLAIN.equals(style.getFillMode()))
         {
             fill = interpolateColor(group, element);
         }
@@ -257,18 +480,12 @@ public abstract class ElementRenderer
     }
 
 
-    protected void pushTextStyle(final StyleGroup group, final GraphicsContext g, final FxCamera camera)
+    protected void pushTextStyle(final StyleGroup group, final DrawContext g, final FxCamera camera)
     {
-        String fontName = group.getTextFont();
-        StyleConstants.TextStyle textStyle = group.getTextStyle();
-        if (null == textStyle)
-        {
-            textStyle = StyleConstants.TextStyle.NORMAL;
-        }
-
+        final ResolvedStyle style = this.getStyle(group);
         if (this.isAutoScale())
         {
-            final double styledSize = group.getTextSize().doubleValue();
+            final double styledSize = style.getTextSize();
             if (camera.getViewPercent() <= 1)
             {
                 final double scaledSize = styledSize + (1d - camera.getViewPercent()) * styledSize;
@@ -282,62 +499,40 @@ public abstract class ElementRenderer
         }
         else
         {
-            this.textSize = group.getTextSize().intValue();
+            this.textSize = (int) style.getTextSize();
         }
 
-        this.textColor = SwingUtils.fromAwt(group.getTextColor(0));
-        if (null == this.textColor)
-        {
-            this.textColor = Color.BLACK;
-        }
+        this.textColor = style.getTextColor();
 
+        // the font is only looked up once a label is drawn
         this.textFont = null;
-        if (!"default".equalsIgnoreCase(fontName))
-        {
-            this.textFont = FontCache.defaultFontCache().getDefaultFont(textStyle, this.textSize);
-        }
-        if (null == this.textFont)
-        {
-            this.textFont = FontCache.defaultFontCache().getDefaultFont(textStyle, this.textSize);
-        }
-
-        g.setFont(this.textFont);
     }
 
 
-    protected void pushFillStyle(final StyleGroup group, final GraphicsContext g)
+    protected void pushFillStyle(final StyleGroup group, final DrawContext g)
     {
-        Color color = SwingUtils.fromAwt(group.getFillColor(0));
-        if (null == color)
-        {
-            color = Color.BLACK;
-        }
-        g.setFill(color);
+        g.setFill(this.getStyle(group).getFillColor());
     }
 
 
-    protected void pushStrokeStyle(final StyleGroup group, final GraphicsContext g)
+    protected void pushStrokeStyle(final StyleGroup group, final DrawContext g)
     {
-        Color stroke = SwingUtils.fromAwt(group.getStrokeColor(0));
-        if (null == stroke)
-        {
-            stroke = Color.BLACK;
-        }
-        g.setStroke(stroke);
+        final ResolvedStyle style = this.getStyle(group);
+        g.setStroke(style.getStrokeColor());
+        g.setLineWidth(this.limitWidth(style.getStrokeWidth()));
+    }
 
-        Value value = group.getStrokeWidth();
-        if (null == value)
-        {
-            g.setLineWidth(1d);
-        }
-        else
-        {
-            g.setLineWidth(value.doubleValue());
-        }
+
+    /**
+     * @return the line width, capped to a pixel when the quality level leaves out wide strokes
+     */
+    protected final double limitWidth(final double width)
+    {
+        return this.quality < QualityGovernor.arrowsLevel ? Math.min(width, 1d) : width;
     }
 
 
-    protected void strokeShape(final java.awt.Shape s, final GraphicsContext g)
+    protected void strokeShape(final java.awt.Shape s, final DrawContext g)
     {
         final double[] coords = new double[6];
         g.beginPath();
@@ -370,9 +565,13 @@ public abstract class ElementRenderer
     }
 
 
-    protected Image renderIcon(final StyleGroup group, final GraphicsContext g, final FxCamera camera, final GraphicElement element, final double width, final double height)
+    protected Image renderIcon(final StyleGroup group, final DrawContext g, final FxCamera camera, final GraphicElement element, final double width, final double height)
     {
-        final String iconType = group.getIcon();
+        if (this.quality < QualityGovernor.iconsLevel)
+        {
+            return null;
+        }
+        final String iconType = this.getStyle(group).getIcon();
         if (null == iconType || iconType.isEmpty())
         {
             return null;
@@ -399,9 +598,31 @@ public abstract class ElementRenderer
     }
 
 
-    protected Image renderIcon(final StyleGroup group, final GraphicsContext g, final FxCamera camera, final GraphicElement element)
+    /**
+     * draw an icon centred on a point, scaled to fit the given size while keeping its aspect ratio
+     */
+    protected static void drawIcon(final DrawContext g, final Image icon, final double x, final double y, final double width, final double height)
     {
-        final String iconType = group.getIcon();
+        final double iconWidth = icon.getWidth();
+        final double iconHeight = icon.getHeight();
+        if (iconWidth <= 0 || iconHeight <= 0)
+        {
+            return;
+        }
+        final double scale = Math.min(width / iconWidth, height / iconHeight);
+        final double w = iconWidth * scale;
+        final double h = iconHeight * scale;
+        g.drawImage(icon, x - (w / 2d), y - (h / 2d), w, h);
+    }
+
+
+    protected Image renderIcon(final StyleGroup group, final DrawContext g, final FxCamera camera, final GraphicElement element)
+    {
+        if (this.quality < QualityGovernor.iconsLevel)
+        {
+            return null;
+        }
+        final String iconType = this.getStyle(group).getIcon();
         if (null == iconType || iconType.isEmpty())
         {
             return null;
@@ -426,13 +647,19 @@ public abstract class ElementRenderer
     }
 
 
-    protected boolean renderText(final StyleGroup group, final GraphicsContext g, final FxCamera camera, final GraphicElement element)
+    protected boolean renderText(final StyleGroup group, final DrawContext g, final FxCamera camera, final GraphicElement element)
     {
-        if (StyleConstants.TextMode.HIDDEN.equals(group.getTextMode()))
+        if (this.quality < QualityGovernor.labelsLevel || !this.isLabelSized(camera, element))
+        {
+            return false;
+        }
+        final ResolvedStyle style = this.getStyle(group);
+        final StyleConstants.TextVisibilityMode visibilityMode = style.getTextVisibilityMode();
+        if (StyleConstants.TextMode.HIDDEN.equals(style.getTextMode()))
         {
             return false;
         }
-        if (StyleConstants.TextVisibilityMode.HIDDEN.equals(group.getTextVisibilityMode()))
+        if (StyleConstants.TextVisibilityMode.HIDDEN.equals(visibilityMode))
         {
             return false;
         }
@@ -448,32 +675,32 @@ public abstract class ElementRenderer
         }
 
         final double currentZoom = camera.getViewPercent();
-        Values zoomVisibility = group.getTextVisibility();
+        Values zoomVisibility = style.getTextVisibility();
         if (null == zoomVisibility)
         {
             zoomVisibility = new Values(new Values(Style.Units.PERCENTS, .25d));
         }
         boolean validZoom = false;
-        if (StyleConstants.TextVisibilityMode.NORMAL.equals(group.getTextVisibilityMode()))
+        if (StyleConstants.TextVisibilityMode.NORMAL.equals(visibilityMode))
         {
             validZoom = true;
         }
-        else if (StyleConstants.TextVisibilityMode.AT_ZOOM.equals(group.getTextVisibilityMode()))
+        else if (StyleConstants.TextVisibilityMode.AT_ZOOM.equals(visibilityMode))
         {
             final double zoom = zoomVisibility.get(0);
             validZoom = Approximations.approximatelyEquals(currentZoom, zoom);
         }
-        else if (StyleConstants.TextVisibilityMode.OVER_ZOOM.equals(group.getTextVisibilityMode()))
+        else if (StyleConstants.TextVisibilityMode.OVER_ZOOM.equals(visibilityMode))
         {
             final double min = zoomVisibility.get(0);
             validZoom = currentZoom >= min || Approximations.approximatelyEquals(currentZoom, min);
         }
-        else if (StyleConstants.TextVisibilityMode.UNDER_ZOOM.equals(group.getTextVisibilityMode()))
+        else if (StyleConstants.TextVisibilityMode.UNDER_ZOOM.equals(visibilityMode))
         {
             final double max = zoomVisibility.get(0);
             validZoom = currentZoom <= max || Approximations.approximatelyEquals(currentZoom, max);
         }
-        else if (StyleConstants.TextVisibilityMode.ZOOM_RANGE.equals(group.getTextVisibilityMode()))
+        else if (StyleConstants.TextVisibilityMode.ZOOM_RANGE.equals(visibilityMode))
         {
             final double min = zoomVisibility.get(0);
             final double max = zoomVisibility.getValueCount() > 1 ? zoomVisibility.get(1) : min;
@@ -481,7 +708,7 @@ public abstract class ElementRenderer
                 Approximations.approximatelyEquals(currentZoom, min) ||
                 Approximations.approximatelyEquals(currentZoom, max);
         }
-        else if (StyleConstants.TextVisibilityMode.ZOOMS.equals(group.getTextVisibilityMode()))
+        else if (StyleConstants.TextVisibilityMode.ZOOMS.equals(visibilityMode))
         {
             for (int i = 0; i < zoomVisibility.getValueCount(); i++)
             {
@@ -494,19 +721,21 @@ public abstract class ElementRenderer
             return false;
         }
 
-        final Point2D pos = camera.graphToScreen(new Point2D(element.getX(), element.getY()));
-        final ElementContext context = camera.getElement(element.getId());
-        if (null == pos || null == context)
+        if (!this.labelBox(camera, element, this.labelBox))
         {
             return false;
         }
-        double x = pos.getX();
-        double y = pos.getY() + this.textSize / 3d;
-        double w = Toolkit.getToolkit().getFontLoader().computeStringWidth(label, this.textFont);
-        double width = Math.max(1, context.getBounds().getWidth());
-        double height = Math.max(1, context.getBounds().getHeight());
+        double x = this.labelBox[0];
+        double y = this.labelBox[1] + this.textSize / 3d;
+        if (null == this.textFont)
+        {
+            this.textFont = style.getFont(this.textSize);
+        }
+        double w = TextWidthCache.defaultTextWidthCache().getWidth(label, this.textFont);
+        double width = Math.max(1, this.labelBox[2]);
+        double height = Math.max(1, this.labelBox[3]);
 
-        switch (group.getTextAlignment())
+        switch (style.getTextAlignment())
         {
             case CENTER:
                 x += w / 2d;
@@ -603,7 +832,7 @@ public abstract class ElementRenderer
     }
 
 
-    private void configureSize(final StyleGroup group, final GraphicsContext g, final FxCamera camera, final GraphicElement element)
+    private void configureSize(final StyleGroup group, final DrawContext g, final FxCamera camera, final GraphicElement element)
     {
         if (StyleConstants.SizeMode.DYN_SIZE.equals(group.getSizeMode()))
         {
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2006 - 2013
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.ui.javafx.renderer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * nanosecond timings of each rendering phase over a rolling window of frames
+ * <p>
+ * Phases are accumulated while a frame is drawn on the FX thread and committed
+ * when it ends; queries may come from any thread and see whole frames only.
+ */
+public class FrameStats
+{
+    public enum Phase
+    {
+        /** the whole frame */
+        FRAME,
+        /** view transform and element geometry */
+        COMPUTE,
+        /** resolving and pushing group styles */
+        STYLE,
+        BACKGROUND,
+        BACK_LAYER,
+        /** node, edge and sprite drawing, without style and text */
+        ELEMENTS,
+        TEXT,
+        FORE_LAYER,
+        SELECTION
+    }
+
+    public static final int defaultWindow = 512;
+
+    private final int window;
+
+    private final Samples[] phases = new Samples[Phase.values().length];
+
+    private final List<Samples> zIndices = new ArrayList<>();
+
+    private final long[] current = new long[Phase.values().length];
+
+    private long[] currentZIndex = new long[8];
+
+    private int numZIndices = 0;
+
+    private long frameStart = 0;
+
+    private long frames = 0;
+
+    private int drawnElements = 0;
+
+    private int culledElements = 0;
+
+
+    public FrameStats()
+    {
+        this(defaultWindow);
+    }
+
+
+    public FrameStats(final int window)
+    {
+        if (window <= 0)
+        {
+            throw new IllegalArgumentException("Window must be positive.");
+        }
+        this.window = window;
+        for (int i = 0; i < this.phases.length; i++)
+        {
+            this.phases[i] = new Samples(window);
+        }
+    }
+
+
+    public void beginFrame()
+    {
+        Arrays.fill(this.current, 0);
+        Arrays.fill(this.currentZIndex, 0);
+        this.numZIndices = 0;
+        this.frameStart = System.nanoTime();
+    }
+
+
+    /**
+     * add the time elapsed since start to a phase of the current frame
+     *
+     * @return the current time, to be used as the start of the next phase
+     */
+    public long record(final Phase phase, final long start)
+    {
+        final long now = System.nanoTime();
+        this.current[phase.ordinal()] += now - start;
+        return now;
+    }
+
+
+    public void add(final Phase phase, final long nanos)
+    {
+        this.current[phase.ordinal()] += nanos;
+    }
+
+
+    /**
+     * add the time elapsed since start to the index-th z-index level of the current frame
+     *
+     * @return the current time
+     */
+    public long recordZIndex(final int index, final long start)
+    {
+        final long now = System.nanoTime();
+        if (index >= this.currentZIndex.length)
+        {
+            this.currentZIndex = Arrays.copyOf(this.currentZIndex, Math.max(index + 1, this.currentZIndex.length * 2));
+        }
+        this.currentZIndex[index] += now - start;
+        this.numZIndices = Math.max(this.numZIndices, index + 1);
+        return now;
+    }
+
+
+    public synchronized void endFrame(final int drawn, final int culled)
+    {
+        this.current[Phase.FRAME.ordinal()] = System.nanoTime() - this.frameStart;
+        for (int i = 0; i < this.phases.length; i++)
+        {
+            this.phases[i].add(this.current[i]);
+        }
+        while (this.zIndices.size() < this.numZIndices)
+        {
+            this.zIndices.add(new Samples(this.window));
+        }
+        for (int i = 0; i < this.zIndices.size(); i++)
+        {
+            this.zIndices.get(i).add(i < this.numZIndices ? this.currentZIndex[i] : 0);
+        }
+        this.drawnElements = drawn;
+        this.culledElements = culled;
+        this.frames++;
+    }
+
+
+    public synchronized long getFrameCount()
+    {
+        return this.frames;
+    }
+
+
+    public synchronized int getDrawnElementCount()
+    {
+        return this.drawnElements;
+    }
+
+
+    public synchronized int getCulledElementCount()
+    {
+        return this.culledElements;
+    }
+
+
+    /**
+     * @return the time of the phase during the last frame, in nanoseconds
+     */
+    public synchronized long getLast(final Phase phase)
+    {
+        return this.phases[phase.ordinal()].last();
+    }
+
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the phase time at that percentile over the window, in nanoseconds
+     */
+    public synchronized long getPercentile(final Phase phase, final double percentile)
+    {
+        return this.phases[phase.ordinal()].percentile(percentile);
+    }
+
+
+    public synchronized int getZIndexCount()
+    {
+        return this.zIndices.size();
+    }
+
+
+    /**
+     * @param index position of the level in the style group z-index order
+     * @return the time spent drawing that level at the given percentile, in nanoseconds
+     */
+    public synchronized long getZIndexPercentile(final int index, final double percentile)
+    {
+        if (index < 0 || index >= this.zIndices.size())
+        {
+            return 0;
+        }
+        return this.zIndices.get(index).percentile(percentile);
+    }
+
+
+    public synchronized void reset()
+    {
+        for (final Samples samples : this.phases)
+        {
+            samples.clear();
+        }
+        this.zIndices.clear();
+        this.frames = 0;
+        this.drawnElements = 0;
+        this.culledElements = 0;
+    }
+
+
+    /**
+     * @return one line with the last frame and p50/p95/p99 of each phase, in milliseconds
+     */
+    @Override
+    public synchronized String toString()
+    {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("frame ").append(this.frames);
+        for (final Phase phase : Phase.values())
+        {
+            final Samples samples = this.phases[phase.ordinal()];
+            buffer.append(String.format(" %s=%.3f[%.3f/%.3f/%.3f]",
+                phase.name().toLowerCase(),
+                samples.last() / 1e6, samples.percentile(50) / 1e6, samples.percentile(95) / 1e6, samples.percentile(99) / 1e6));
+        }
+        buffer.append(" drawn=").append(this.drawnElements).append(" culled=").append(this.culledElements);
+        return buffer.toString();
+    }
+
+
+    private static final class Samples
+    {
+        private final long[] values;
+
+        private final long[] sorted;
+
+        private int count = 0;
+
+        private int next = 0;
+
+
+        private Samples(final int window)
+        {
+            this.values = new long[window];
+            this.sorted = new long[window];
+        }
+
+
+        private void add(final long value)
+        {
+            this.values[this.next] = value;
+            this.next = (this.next + 1) % this.values.length;
+            this.count = Math.min(this.count + 1, this.values.length);
+        }
+
+
+        private long last()
+        {
+            if (this.count <= 0)
+            {
+                return 0;
+            }
+            return this.values[(this.next - 1 + this.values.length) % this.values.length];
+        }
+
+
+        private long percentile(final double percentile)
+        {
+            if (this.count <= 0)
+            {
+                return 0;
+            }
+            System.arraycopy(this.values, 0, this.sorted, 0, this.count);
+            Arrays.sort(this.sorted, 0, this.count);
+            final int rank = (int) Math.ceil(Math.max(0d, Math.min(100d, percentile)) / 100d * this.count) - 1;
+            return this.sorted[Math.max(0, rank)];
+        }
+
+
+        private void clear()
+        {
+            this.count = 0;
+            this.next = 0;
+        }
+    }
+}
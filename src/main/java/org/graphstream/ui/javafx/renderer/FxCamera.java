@@ -32,6 +32,7 @@
 package org.graphstream.ui.javafx.renderer;
 
 import javafx.geometry.Point2D;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.transform.Affine;
 import javafx.scene.transform.NonInvertibleTransformException;
@@ -49,6 +50,7 @@ import org.graphstream.ui.graphicGraph.stylesheet.StyleConstants;
 import org.graphstream.ui.graphicGraph.stylesheet.StyleConstants.Units;
 import org.graphstream.ui.graphicGraph.stylesheet.Values;
 import org.graphstream.ui.javafx.util.Approximations;
+import org.graphstream.ui.javafx.util.Geometries;
 import org.graphstream.ui.swingViewer.util.GraphMetrics;
 import org.graphstream.ui.view.Camera;
 import org.graphstream.ui.view.util.CubicCurve;
@@ -56,11 +58,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 
 /**
  * Define how the graph is viewed.
@@ -102,6 +106,13 @@ public class FxCamera implements Camera
 
     private Affine Tx = new Affine();
 
+    private final double[] gu2px = {1, 0, 0, 0, 1, 0};
+
+    private final double[] px2gu = {1, 0, 0, 0, 1, 0};
+
+    // scratch copy of the graph to screen matrix, compared with the current one
+    private final double[] coefficients = new double[6];
+
     private Affine xT;
 
     private double rotation;
@@ -112,7 +123,21 @@ public class FxCamera implements Camera
 
     private double gviewportDiagonal = 0;
 
-    private final Map<String, ElementContext> elements = new TreeMap<>();
+    private final Map<GraphicElement, ContextEntry> elements = new IdentityHashMap<>();
+
+    private long elementStamp = 0;
+
+    private int elementsTouched = 0;
+
+    private long transformVersion = 0;
+
+    private final NodeGeometry geometry = new NodeGeometry();
+
+    private final SpatialIndex index = new SpatialIndex();
+
+    private final Point3 point = new Point3();
+
+    private double[] edgePoints = new double[8];
 
     public FxCamera(GraphicGraph graph)
     {
@@ -224,11 +249,6 @@ public class FxCamera implements Camera
             return false;
         }
 
-        if (this.autoFit)
-        {
-            return true;
-        }
-
         switch (element.getSelectorType())
         {
             case NODE:
@@ -245,23 +265,81 @@ public class FxCamera implements Camera
     @Override
     public Point3 transformPxToGu(final double x, final double y)
     {
-        final javafx.geometry.Point2D p = xT.transform(x, y);
-        if (null == p)
-        {
-            return null;
-        }
-        return new Point3(p.getX(), p.getY(), 0d);
+        return this.transformPxToGu(x, y, new Point3());
+    }
+
+    /**
+     * transform a pixel position into graph units without allocating
+     *
+     * @param out receives the transformed position
+     * @return out
+     */
+    public Point3 transformPxToGu(final double x, final double y, final Point3 out)
+    {
+        final double[] m = this.px2gu;
+        out.set(m[0] * x + m[1] * y + m[2], m[3] * x + m[4] * y + m[5], 0d);
+        return out;
     }
 
     @Override
     public Point3 transformGuToPx(double x, double y, double z)
     {
-        final javafx.geometry.Point2D p = Tx.transform(x, y);
-        if (null == p)
-        {
-            return null;
+        return this.transformGuToPx(x, y, z, new Point3());
+    }
+
+    /**
+     * transform a graph position into pixels without allocating
+     *
+     * @param out receives the transformed position
+     * @return out
+     */
+    public Point3 transformGuToPx(final double x, final double y, final double z, final Point3 out)
+    {
+        final double[] m = this.gu2px;
+        out.set(m[0] * x + m[1] * y + m[2], m[3] * x + m[4] * y + m[5], z);
+        return out;
+    }
+
+    /**
+     * transform packed x/y graph positions into pixels, in place
+     *
+     * @param coords x/y pairs
+     * @param offset index of the first x value
+     * @param count number of points
+     */
+    public void transformGuToPx(final double[] coords, final int offset, final int count)
+    {
+        transform(this.gu2px, coords, offset, count);
+    }
+
+    /**
+     * transform packed x/y pixel positions into graph units, in place
+     *
+     * @param coords x/y pairs
+     * @param offset index of the first x value
+     * @param count number of points
+     */
+    public void transformPxToGu(final double[] coords, final int offset, final int count)
+    {
+        transform(this.px2gu, coords, offset, count);
+    }
+
+    private static void transform(final double[] m, final double[] coords, final int offset, final int count)
+    {
+        final double mxx = m[0];
+        final double mxy = m[1];
+        final double tx = m[2];
+        final double myx = m[3];
+        final double myy = m[4];
+        final double ty = m[5];
+        final int end = offset + count * 2;
+        for (int i = offset; i < end; i += 2)
+        {
+            final double x = coords[i];
+            final double y = coords[i + 1];
+            coords[i] = mxx * x + mxy * y + tx;
+            coords[i + 1] = myx * x + myy * y + ty;
         }
-        return new Point3(p.getX(), p.getY(), z);
     }
 
     public void pushView(final GraphicGraph graph, final GraphicsContext g)
@@ -276,48 +354,236 @@ public class FxCamera implements Camera
         }
     }
 
-    public boolean putElement(final ElementContext context)
+    /**
+     * start a pass over the element contexts, contexts not put again before
+     * {@link #endElements()} are dropped
+     */
+    public void beginElements()
     {
-        if (null == context)
+        this.geometry.clear();
+        this.elementStamp++;
+        this.elementsTouched = 0;
+    }
+
+    public void endElements()
+    {
+        if (this.elements.size() <= this.elementsTouched)
+        {
+            return;
+        }
+        final Iterator<ContextEntry> it = this.elements.values().iterator();
+        while (it.hasNext())
+        {
+            if (it.next().stamp != this.elementStamp)
+            {
+                it.remove();
+            }
+        }
+    }
+
+    public boolean putElement(final GraphicElement element, final ElementContext context)
+    {
+        return this.put(element, context) != null;
+    }
+
+    /**
+     * put a node context and store its screen geometry in the node buffer
+     */
+    public boolean putNodeElement(final GraphicNode node, final ElementContext context, final byte shape)
+    {
+        final ContextEntry entry = this.put(node, context);
+        if (null == entry)
         {
             return false;
         }
-        final String id = context.getId();
-        if (null == id || id.isEmpty())
+        if (context instanceof AstractContext)
         {
+            final AstractContext primitive = (AstractContext) context;
+            entry.slot = this.geometry.add(primitive.getX(), primitive.getY(), primitive.getWidth() / 2d, primitive.getHeight() / 2d, shape);
+            return true;
+        }
+        final Point2D pos = context.getPosition();
+        final Rectangle2D bounds = context.getBounds();
+        entry.slot = this.geometry.add(pos.getX(), pos.getY(), bounds.getWidth() / 2d, bounds.getHeight() / 2d, shape);
+        return true;
+    }
+
+    /**
+     * store the screen geometry of a node that is drawn without a context,
+     * such as a point splat; {@link #getElement(GraphicElement)} returns null for it
+     */
+    public boolean putNodeGeometry(final GraphicNode node, final double x, final double y, final double halfWidth, final double halfHeight, final byte shape)
+    {
+        if (null == node || halfWidth <= 0 || halfHeight <= 0)
+        {
+            this.removeElement(node);
             return false;
         }
-        if (context.getBounds() == null || context.getBounds().getWidth() <= 0 || context.getBounds().getHeight() <= 0)
+        ContextEntry entry = this.elements.get(node);
+        if (null == entry)
         {
-            return this.elements.remove(id) != null;
+            entry = new ContextEntry();
+            this.elements.put(node, entry);
         }
-        else
+        entry.context = null;
+        if (entry.stamp != this.elementStamp)
         {
-            this.elements.put(id, context);
-            return true;
+            entry.stamp = this.elementStamp;
+            this.elementsTouched++;
+        }
+        entry.slot = this.geometry.add(x, y, halfWidth, halfHeight, shape);
+        return true;
+    }
+
+    /**
+     * @return the slot of the node in {@link #getNodeGeometry()}, or -1 if not rendered
+     */
+    public int getNodeSlot(final GraphicElement node)
+    {
+        if (null == node)
+        {
+            return -1;
+        }
+        final ContextEntry entry = this.elements.get(node);
+        return entry != null ? entry.slot : -1;
+    }
+
+    public NodeGeometry getNodeGeometry()
+    {
+        return this.geometry;
+    }
+
+    private static boolean hasArea(final ElementContext context)
+    {
+        if (context instanceof AstractContext)
+        {
+            final AstractContext primitive = (AstractContext) context;
+            return primitive.getWidth() > 0 && primitive.getHeight() > 0;
+        }
+        final Rectangle2D bounds = context.getBounds();
+        return bounds != null && bounds.getWidth() > 0 && bounds.getHeight() > 0;
+    }
+
+    private ContextEntry put(final GraphicElement element, final ElementContext context)
+    {
+        if (null == element)
+        {
+            return null;
+        }
+        if (null == context)
+        {
+            this.removeElement(element);
+            return null;
         }
+        if (!hasArea(context))
+        {
+            this.removeElement(element);
+            return null;
+        }
+
+        ContextEntry entry = this.elements.get(element);
+        if (null == entry)
+        {
+            entry = new ContextEntry();
+            this.elements.put(element, entry);
+        }
+        entry.context = context;
+        entry.slot = -1;
+        if (entry.stamp != this.elementStamp)
+        {
+            entry.stamp = this.elementStamp;
+            this.elementsTouched++;
+        }
+        return entry;
     }
 
-    public boolean removeElement(final String id)
+    public boolean removeElement(final GraphicElement element)
     {
-        if (null == id)
+        if (null == element)
         {
             return false;
         }
-        return this.elements.remove(id) != null;
+        return this.elements.remove(element) != null;
     }
 
-    public ElementContext getElement(final String id)
+    public ElementContext getElement(final GraphicElement element)
     {
-        if (null == id)
+        if (null == element)
         {
             return null;
         }
-        return this.elements.get(id);
+        final ContextEntry entry = this.elements.get(element);
+        return entry != null ? entry.context : null;
+    }
+
+    /**
+     * @return a counter that changes whenever the graph to screen transform does
+     */
+    public long getTransformVersion()
+    {
+        return this.transformVersion;
+    }
+
+    public void beginIndex()
+    {
+        this.index.clear();
+    }
+
+    public void indexElement(final GraphicElement element)
+    {
+        if (null == element || null == element.getStyle())
+        {
+            return;
+        }
+
+        final double x;
+        final double y;
+        switch (element.getSelectorType())
+        {
+            case NODE:
+                final int slot = this.getNodeSlot(element);
+                if (slot >= 0)
+                {
+                    x = this.geometry.getX(slot);
+                    y = this.geometry.getY(slot);
+                }
+                else
+                {
+                    this.transformGuToPx(element.getX(), element.getY(), 0, this.point);
+                    x = this.point.x;
+                    y = this.point.y;
+                }
+                break;
+            case SPRITE:
+                if (!spritePositionPx((GraphicSprite) element, this.point))
+                {
+                    return;
+                }
+                x = this.point.x;
+                y = this.point.y;
+                break;
+            default:
+                return;
+        }
+
+        final Values size = element.getStyle().getSize();
+        final double w2 = metrics.lengthToPx(size, 0) / 2;
+        final double h2 = size.size() > 1 ? metrics.lengthToPx(size, 1) / 2 : w2;
+        this.index.add(element, x - w2, y - h2, x + w2, y + h2);
+    }
+
+    public void endIndex()
+    {
+        this.index.build();
     }
 
     public GraphicElement findNodeOrSpriteAt(final GraphicGraph graph, final double x, final double y)
     {
+        if (this.index.isBuilt())
+        {
+            return findIndexedNodeOrSpriteAt(graph, x, y);
+        }
+
         for (Node n : graph)
         {
             GraphicNode node = (GraphicNode) n;
@@ -341,6 +607,11 @@ public class FxCamera implements Camera
 
     public Collection<GraphicElement> allNodesOrSpritesIn(GraphicGraph graph, double x1, double y1, double x2, double y2)
     {
+        if (this.index.isBuilt())
+        {
+            return allIndexedNodesOrSpritesIn(graph, x1, y1, x2, y2);
+        }
+
         List<GraphicElement> elts = new ArrayList<>();
 
         for (Node node : graph)
@@ -363,18 +634,30 @@ public class FxCamera implements Camera
     }
 
     public Point2D getSpritePosition(GraphicSprite sprite, Units units)
+    {
+        final Point3 pos = new Point3();
+        return this.getSpritePosition(sprite, units, pos) ? new Point2D(pos.x, pos.y) : null;
+    }
+
+    /**
+     * compute the position of a sprite without allocating
+     *
+     * @param out receives the position
+     * @return false if the sprite has no position in the given units
+     */
+    public boolean getSpritePosition(final GraphicSprite sprite, final Units units, final Point3 out)
     {
         if (sprite.isAttachedToNode())
         {
-            return getSpritePositionNode(sprite, units);
+            return getSpritePositionNode(sprite, units, out);
         }
         else if (sprite.isAttachedToEdge())
         {
-            return getSpritePositionEdge(sprite, units);
+            return getSpritePositionEdge(sprite, units, out);
         }
         else
         {
-            return getSpritePositionFree(sprite, units);
+            return getSpritePositionFree(sprite, units, out);
         }
     }
 
@@ -436,6 +719,7 @@ public class FxCamera implements Camera
         {
             logger.debug("Cannot inverse gu2px matrix.", e);
         }
+        this.updateCoefficients();
 
         this.zoom = 1;
         this.center.set(tx, ty, 0);
@@ -480,6 +764,7 @@ public class FxCamera implements Camera
         {
             logger.info("Cannot inverse gu2px matrix.", e);
         }
+        this.updateCoefficients();
 
         if (!Approximations.approximatelyEquals(0, scale, .000001))
         {
@@ -503,6 +788,7 @@ public class FxCamera implements Camera
             this.center.set(metrics.lo.x + (metrics.size.data[0] / 2), metrics.lo.y + (metrics.size.data[1] / 2), 0);
         }
         this.autoFit = on;
+        this.graph.graphChanged = true;
     }
 
     public void setZoom(double z)
@@ -535,14 +821,19 @@ public class FxCamera implements Camera
         {
             return null;
         }
-        if (null == this.xT)
-        {
-            return new Point2D(pos.getX(), pos.getY());
-        }
-        else
-        {
-            return this.xT.transform(pos);
-        }
+        final double[] m = this.px2gu;
+        return new Point2D(m[0] * pos.getX() + m[1] * pos.getY() + m[2], m[3] * pos.getX() + m[4] * pos.getY() + m[5]);
+    }
+
+    /**
+     * transform a screen position into graph units without allocating
+     *
+     * @param out receives the transformed position
+     * @return out
+     */
+    public Point3 screenToGraph(final double x, final double y, final Point3 out)
+    {
+        return this.transformPxToGu(x, y, out);
     }
 
     public Point2D graphToScreen(final Point2D pos)
@@ -551,14 +842,45 @@ public class FxCamera implements Camera
         {
             return null;
         }
-        if (null == this.Tx)
-        {
-            return new Point2D(pos.getX(), pos.getY());
-        }
-        else
-        {
-            return this.Tx.transform(pos);
-        }
+        final double[] m = this.gu2px;
+        return new Point2D(m[0] * pos.getX() + m[1] * pos.getY() + m[2], m[3] * pos.getX() + m[4] * pos.getY() + m[5]);
+    }
+
+    /**
+     * transform a graph position into screen pixels without allocating
+     *
+     * @param out receives the transformed position
+     * @return out
+     */
+    public Point3 graphToScreen(final double x, final double y, final Point3 out)
+    {
+        return this.transformGuToPx(x, y, 0d, out);
+    }
+
+    /**
+     * copy both affine matrices into flat coefficient arrays used by the batch
+     * transforms, bumping the transform version when the view changed
+     */
+    private void updateCoefficients()
+    {
+        final double[] m = this.coefficients;
+        m[0] = Tx.getMxx();
+        m[1] = Tx.getMxy();
+        m[2] = Tx.getTx();
+        m[3] = Tx.getMyx();
+        m[4] = Tx.getMyy();
+        m[5] = Tx.getTy();
+        if (!Arrays.equals(m, this.gu2px))
+        {
+            System.arraycopy(m, 0, this.gu2px, 0, m.length);
+            this.transformVersion++;
+        }
+        this.px2gu[0] = xT.getMxx();
+        this.px2gu[1] = xT.getMxy();
+        this.px2gu[2] = xT.getTx();
+        this.px2gu[3] = xT.getMyx();
+        this.px2gu[4] = xT.getMyy();
+        this.px2gu[5] = xT.getTy();
     }
 
     private double getPaddingXgu()
@@ -605,7 +927,11 @@ public class FxCamera implements Camera
 
     private boolean isSpriteVisible(GraphicSprite sprite)
     {
-        return isSpriteIn(sprite,
+        if (sprite.isAttachedToEdge() && !isEdgeDisplayable(sprite.getEdgeAttachment()))
+        {
+            return false;
+        }
+        return isSpriteBoxIn(sprite,
                 this.metrics.getViewportX(), this.metrics.getViewportY(),
                 this.metrics.getViewportX() + this.metrics.getViewportWidth(),
                 this.metrics.getViewportY() + this.metrics.getViewportHeight());
@@ -613,13 +939,91 @@ public class FxCamera implements Camera
 
     private boolean isNodeVisible(GraphicNode node)
     {
-        return isNodeIn(node,
-                this.metrics.getViewportX(), this.metrics.getViewportY(),
-                this.metrics.getViewportX() + this.metrics.getViewportWidth(),
-                this.metrics.getViewportY() + this.metrics.getViewportHeight());
+        final double X1 = this.metrics.getViewportX();
+        final double Y1 = this.metrics.getViewportY();
+        final double X2 = X1 + this.metrics.getViewportWidth();
+        final double Y2 = Y1 + this.metrics.getViewportHeight();
+
+        // prefer the rendered bounds, they account for dynamic size and padding
+        final int slot = this.getNodeSlot(node);
+        if (slot < 0)
+        {
+            return isNodeIn(node, X1, Y1, X2, Y2);
+        }
+        final double x = this.geometry.getX(slot);
+        final double y = this.geometry.getY(slot);
+        final double w2 = this.geometry.getHalfWidth(slot);
+        final double h2 = this.geometry.getHalfHeight(slot);
+        return x + w2 >= X1 && y + h2 >= Y1 && x - w2 <= X2 && y - h2 <= Y2;
     }
 
     private boolean isEdgeVisible(GraphicEdge edge)
+    {
+        if (!isEdgeDisplayable(edge))
+        {
+            return false;
+        }
+
+        // grow the viewport by whatever may be drawn around the edge line
+        final StyleGroup style = edge.getStyle();
+        double margin = 1;
+        if (style.getStrokeWidth() != null)
+        {
+            margin += metrics.lengthToPx(style.getStrokeWidth()) / 2;
+        }
+        if (style.getSize() != null && style.getSize().size() > 0)
+        {
+            margin += metrics.lengthToPx(style.getSize(), 0) / 2;
+        }
+        if (edge.isDirected() && style.getArrowSize() != null && style.getArrowSize().size() > 0)
+        {
+            margin += metrics.lengthToPx(style.getArrowSize(), 0);
+        }
+        final double X1 = this.metrics.getViewportX() - margin;
+        final double Y1 = this.metrics.getViewportY() - margin;
+        final double X2 = this.metrics.getViewportX() + this.metrics.getViewportWidth() + margin;
+        final double Y2 = this.metrics.getViewportY() + this.metrics.getViewportHeight() + margin;
+
+        final double ctrl[] = edge.isCurve() ? edge.getControlPoints() : null;
+        final int numCtrl = null == ctrl ? 0 : (ctrl.length + 1) / 3;
+        final int numPoints = 2 + numCtrl;
+        if (this.edgePoints.length < numPoints * 2)
+        {
+            this.edgePoints = new double[numPoints * 2];
+        }
+        final double[] points = this.edgePoints;
+        points[0] = edge.from.x;
+        points[1] = edge.from.y;
+        points[2] = edge.to.x;
+        points[3] = edge.to.y;
+        for (int i = 0; i < numCtrl; i++)
+        {
+            points[4 + i * 2] = ctrl[i * 3];
+            points[5 + i * 2] = ctrl[i * 3 + 1];
+        }
+        this.transformGuToPx(points, 0, numPoints);
+
+        if (numCtrl > 0)
+        {
+            // a curve stays within the hull of its control points
+            double minx = Double.POSITIVE_INFINITY;
+            double miny = Double.POSITIVE_INFINITY;
+            double maxx = Double.NEGATIVE_INFINITY;
+            double maxy = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < numPoints * 2; i += 2)
+            {
+                minx = Math.min(minx, points[i]);
+                miny = Math.min(miny, points[i + 1]);
+                maxx = Math.max(maxx, points[i]);
+                maxy = Math.max(maxy, points[i + 1]);
+            }
+            return maxx >= X1 && maxy >= Y1 && minx <= X2 && miny <= Y2;
+        }
+
+        return Geometries.segmentIntersectsRect(points[0], points[1], points[2], points[3], X1, Y1, X2, Y2);
+    }
+
+    private boolean isEdgeDisplayable(GraphicEdge edge)
     {
         GraphicNode node0 = edge.getNode0();
         GraphicNode node1 = edge.getNode1();
@@ -649,12 +1053,12 @@ public class FxCamera implements Camera
         double h2 = size.size() > 1 ? metrics.lengthToPx(size, 1) / 2 : w2;
         boolean vis = true;
 
-        final Point2D p = Tx.transform(node.getX(), node.getY());
+        final Point3 p = this.transformGuToPx(node.getX(), node.getY(), 0, this.point);
 
-        double x1 = p.getX() - w2;
-        double x2 = p.getX() + w2;
-        double y1 = p.getY() - h2;
-        double y2 = p.getY() + h2;
+        double x1 = p.x - w2;
+        double x2 = p.x + w2;
+        double y1 = p.y - h2;
+        double y2 = p.y + h2;
 
         if (x2 < X1)
         {
@@ -682,25 +1086,28 @@ public class FxCamera implements Camera
         {
             return false;
         }
-        if (sprite.isAttachedToEdge() && !isEdgeVisible(sprite.getEdgeAttachment()))
+        if (sprite.isAttachedToEdge() && !isEdgeDisplayable(sprite.getEdgeAttachment()))
         {
             return false;
         }
+        return isSpriteBoxIn(sprite, X1, Y1, X2, Y2);
+    }
 
+    private boolean isSpriteBoxIn(final GraphicSprite sprite, final double X1, final double Y1, final double X2, final double Y2)
+    {
         Values size = sprite.getStyle().getSize();
         double w2 = metrics.lengthToPx(size, 0) / 2;
         double h2 = size.size() > 1 ? metrics.lengthToPx(size, 1) / 2 : w2;
 
-        Point2D src = spritePositionPx(sprite);
-        if (null == src)
+        if (!spritePositionPx(sprite, this.point))
         {
             return false;
         }
 
-        double x1 = src.getX() - w2;
-        double x2 = src.getX() + w2;
-        double y1 = src.getY() - h2;
-        double y2 = src.getY() + h2;
+        double x1 = this.point.x - w2;
+        double x2 = this.point.x + w2;
+        double y1 = this.point.y - h2;
+        double y2 = this.point.y + h2;
 
         if (x2 < X1)
         {
@@ -722,9 +1129,61 @@ public class FxCamera implements Camera
         return true;
     }
 
-    private Point2D spritePositionPx(GraphicSprite sprite)
+    private boolean spritePositionPx(final GraphicSprite sprite, final Point3 out)
     {
-        return getSpritePosition(sprite, Units.PX);
+        return getSpritePosition(sprite, Units.PX, out);
+    }
+
+    private GraphicElement findIndexedNodeOrSpriteAt(final GraphicGraph graph, final double x, final double y)
+    {
+        // the index only narrows candidates, the exact tests still apply
+        final int numNodes = this.index.queryPoint(x, y);
+        for (int i = 0; i < numNodes; i++)
+        {
+            final GraphicElement element = this.index.getResult(i);
+            if (element instanceof GraphicNode && graph.getNode(element.getId()) == element && nodeContains(element, x, y))
+            {
+                return element;
+            }
+        }
+
+        // sprites are tested relative to the viewport origin
+        final int numSprites = this.index.queryPoint(x + this.metrics.getViewportX(), y + this.metrics.getViewportY());
+        for (int i = 0; i < numSprites; i++)
+        {
+            final GraphicElement element = this.index.getResult(i);
+            if (element instanceof GraphicSprite && graph.getSprite(element.getId()) == element && spriteContains(element, x, y))
+            {
+                return element;
+            }
+        }
+
+        return null;
+    }
+
+    private Collection<GraphicElement> allIndexedNodesOrSpritesIn(final GraphicGraph graph, final double x1, final double y1, final double x2, final double y2)
+    {
+        final List<GraphicElement> elts = new ArrayList<>();
+        final int num = this.index.queryBox(x1, y1, x2, y2);
+        for (int i = 0; i < num; i++)
+        {
+            final GraphicElement element = this.index.getResult(i);
+            if (element instanceof GraphicNode)
+            {
+                if (graph.getNode(element.getId()) == element && isNodeIn((GraphicNode) element, x1, y1, x2, y2))
+                {
+                    elts.add(element);
+                }
+            }
+            else if (element instanceof GraphicSprite)
+            {
+                if (graph.getSprite(element.getId()) == element && isSpriteIn((GraphicSprite) element, x1, y1, x2, y2))
+                {
+                    elts.add(element);
+                }
+            }
+        }
+        return Collections.unmodifiableList(elts);
     }
 
     private boolean nodeContains(GraphicElement elt, double x, double y)
@@ -733,14 +1192,25 @@ public class FxCamera implements Camera
         double w2 = metrics.lengthToPx(size, 0) / 2;
         double h2 = size.size() > 1 ? metrics.lengthToPx(size, 1) / 2 : w2;
 
-        javafx.geometry.Point2D dst = Tx.transform(elt.getX(), elt.getY());
-
-        dst.subtract(this.metrics.getViewportX(), this.metrics.getViewportY());
+        double px;
+        double py;
+        final int slot = this.getNodeSlot(elt);
+        if (slot >= 0)
+        {
+            px = this.geometry.getX(slot);
+            py = this.geometry.getY(slot);
+        }
+        else
+        {
+            this.transformGuToPx(elt.getX(), elt.getY(), 0, this.point);
+            px = this.point.x;
+            py = this.point.y;
+        }
 
-        double x1 = dst.getX() - w2;
-        double x2 = dst.getX() + w2;
-        double y1 = dst.getY() - h2;
-        double y2 = dst.getY() + h2;
+        double x1 = px - w2;
+        double x2 = px + w2;
+        double y1 = py - h2;
+        double y2 = py + h2;
 
         if (x < x1)
         {
@@ -772,16 +1242,15 @@ public class FxCamera implements Camera
         final Values size = elt.getStyle().getSize();
         final double w2 = metrics.lengthToPx(size, 0) / 2;
         final double h2 = size.size() > 1 ? metrics.lengthToPx(size, 1) / 2 : w2;
-        final Point2D dst = spritePositionPx((GraphicSprite) elt);
-        if (null == dst)
+        if (!spritePositionPx((GraphicSprite) elt, this.point))
         {
             return false;
         }
 
-        final double x1 = dst.getX() - this.metrics.getViewportX() - w2;
-        final double x2 = dst.getX() - this.metrics.getViewportX() + w2;
-        final double y1 = dst.getY() - this.metrics.getViewportY() - h2;
-        final double y2 = dst.getY() - this.metrics.getViewportY() + h2;
+        final double x1 = this.point.x - this.metrics.getViewportX() - w2;
+        final double x2 = this.point.x - this.metrics.getViewportX() + w2;
+        final double y1 = this.point.y - this.metrics.getViewportY() - h2;
+        final double y2 = this.point.y - this.metrics.getViewportY() + h2;
 
         if (x < x1)
         {
@@ -808,40 +1277,46 @@ public class FxCamera implements Camera
      *
      * @param sprite The sprite.
      * @param units The units the computed position must be given into.
-     * @return The same instance as pos, or a new one if pos was null.
+     * @param out Receives the position.
+     * @return False if the sprite units cannot be converted.
      */
-    private Point2D getSpritePositionFree(GraphicSprite sprite, Units units)
+    private boolean getSpritePositionFree(GraphicSprite sprite, Units units, Point3 out)
     {
         if (sprite.getUnits() == units)
         {
-            return new Point2D(sprite.getX(), sprite.getY());
+            out.set(sprite.getX(), sprite.getY(), 0d);
+            return true;
         }
 
         if (Units.GU.equals(units) && Units.PX.equals(sprite.getUnits()))
         {
-            return xT.transform(sprite.getX(), sprite.getY());
+            this.transformPxToGu(sprite.getX(), sprite.getY(), out);
+            return true;
         }
 
         if (Units.PX.equals(units) && Units.GU.equals(sprite.getUnits()))
         {
-            return xT.transform(sprite.getX(), sprite.getY());
+            this.transformGuToPx(sprite.getX(), sprite.getY(), 0d, out);
+            return true;
         }
 
         if (Units.GU.equals(units) && Units.PERCENTS.equals(sprite.getUnits()))
         {
             final double x = metrics.lo.x + (sprite.getX() / 100d) * metrics.graphWidthGU();
             final double y = metrics.lo.y + (sprite.getY() / 100d) * metrics.graphHeightGU();
-            return new Point2D(x, y);
+            out.set(x, y, 0d);
+            return true;
         }
 
         if (Units.PX.equals(units) && Units.PERCENTS.equals(sprite.getUnits()))
         {
             final double x = (sprite.getX() / 100d) * this.metrics.getViewportWidth();
             final double y = (sprite.getY() / 100d) * this.metrics.getViewportHeight();
-            return new Point2D(x, y);
+            out.set(x, y, 0d);
+            return true;
         }
 
-        return null;
+        return false;
     }
 
     /**
@@ -849,9 +1324,10 @@ public class FxCamera implements Camera
      *
      * @param sprite The sprite.
      * @param units The units the computed position must be given into.
-     * @return The same instance as pos, or a new one if pos was null.
+     * @param out Receives the position.
+     * @return True, a node attachment always has a position.
      */
-    private Point2D getSpritePositionNode(GraphicSprite sprite, Units units)
+    private boolean getSpritePositionNode(GraphicSprite sprite, Units units, Point3 out)
     {
         GraphicNode node = sprite.getNodeAttachment();
 
@@ -863,12 +1339,13 @@ public class FxCamera implements Camera
 
         if (Units.PX.equals(units))
         {
-            return Tx.transform(x, y);
+            this.transformGuToPx(x, y, 0d, out);
         }
         else
         {
-            return new Point2D(x, y);
+            out.set(x, y, 0d);
         }
+        return true;
     }
 
     /**
@@ -876,14 +1353,15 @@ public class FxCamera implements Camera
      *
      * @param sprite The sprite.
      * @param units The units the computed position must be given into.
-     * @return The same instance as pos, or a new one if pos was null.
+     * @param out Receives the position.
+     * @return False if the sprite lost its edge.
      */
-    private Point2D getSpritePositionEdge(GraphicSprite sprite, Units units)
+    private boolean getSpritePositionEdge(GraphicSprite sprite, Units units, Point3 out)
     {
         GraphicEdge edge = sprite.getEdgeAttachment();
         if (null == edge)
         {
-            return null;
+            return false;
         }
 
         if (edge.isCurve())
@@ -901,7 +1379,15 @@ public class FxCamera implements Camera
 
             double x = CubicCurve.eval(p0.x, p1.x, p2.x, p3.x, sprite.getX()) - perp.data[0];
             double y = CubicCurve.eval(p0.y, p1.y, p2.y, p3.y, sprite.getX()) - perp.data[1];
-            return new Point2D(x, y);
+            if (units == Units.PX)
+            {
+                this.transformGuToPx(x, y, 0d, out);
+            }
+            else
+            {
+                out.set(x, y, 0d);
+            }
+            return true;
         }
         else
         {
@@ -927,12 +1413,22 @@ public class FxCamera implements Camera
 
             if (units == Units.PX)
             {
-                return Tx.transform(x, y);
+                this.transformGuToPx(x, y, 0d, out);
             }
             else
             {
-                return new Point2D(x, y);
+                out.set(x, y, 0d);
             }
+            return true;
         }
     }
+
+    private static class ContextEntry
+    {
+        private ElementContext context;
+
+        private long stamp;
+
+        private int slot = -1;
+    }
 }
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2006 - 2013
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.ui.javafx.renderer;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.shape.StrokeLineJoin;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontSmoothingType;
+import javafx.scene.transform.Affine;
+
+/**
+ * draws straight into a canvas graphics context
+ */
+public class FxDrawContext implements DrawContext
+{
+    private final GraphicsContext g;
+
+
+    public FxDrawContext(final GraphicsContext g)
+    {
+        if (null == g)
+        {
+            throw new IllegalArgumentException("Graphics context cannot be null.");
+        }
+        this.g = g;
+    }
+
+
+    @Override
+    public GraphicsContext getGraphicsContext()
+    {
+        return this.g;
+    }
+
+
+    @Override
+    public void save()
+    {
+        this.g.save();
+    }
+
+
+    @Override
+    public void restore()
+    {
+        this.g.restore();
+    }
+
+
+    @Override
+    public void setTransform(final Affine transform)
+    {
+        this.g.setTransform(transform);
+    }
+
+
+    @Override
+    public void setFill(final Paint paint)
+    {
+        this.g.setFill(paint);
+    }
+
+
+    @Override
+    public void setStroke(final Paint paint)
+    {
+        this.g.setStroke(paint);
+    }
+
+
+    @Override
+    public void setLineWidth(final double width)
+    {
+        this.g.setLineWidth(width);
+    }
+
+
+    @Override
+    public void setLineCap(final StrokeLineCap cap)
+    {
+        this.g.setLineCap(cap);
+    }
+
+
+    @Override
+    public void setLineJoin(final StrokeLineJoin join)
+    {
+        this.g.setLineJoin(join);
+    }
+
+
+    @Override
+    public void setFont(final Font font)
+    {
+        this.g.setFont(font);
+    }
+
+
+    @Override
+    public void setFontSmoothingType(final FontSmoothingType type)
+    {
+        this.g.setFontSmoothingType(type);
+    }
+
+
+    @Override
+    public void beginPath()
+    {
+        this.g.beginPath();
+    }
+
+
+    @Override
+    public void moveTo(final double x, final double y)
+    {
+        this.g.moveTo(x, y);
+    }
+
+
+    @Override
+    public void lineTo(final double x, final double y)
+    {
+        this.g.lineTo(x, y);
+    }
+
+
+    @Override
+    public void quadraticCurveTo(final double xc, final double yc, final double x1, final double y1)
+    {
+        this.g.quadraticCurveTo(xc, yc, x1, y1);
+    }
+
+
+    @Override
+    public void bezierCurveTo(final double xc1, final double yc1, final double xc2, final double yc2, final double x1, final double y1)
+    {
+        this.g.bezierCurveTo(xc1, yc1, xc2, yc2, x1, y1);
+    }
+
+
+    @Override
+    public void arc(final double centerX, final double centerY, final double radiusX, final double radiusY, final double startAngle, final double length)
+    {
+        this.g.arc(centerX, centerY, radiusX, radiusY, startAngle, length);
+    }
+
+
+    @Override
+    public void arcTo(final double x1, final double y1, final double x2, final double y2, final double radius)
+    {
+        this.g.arcTo(x1, y1, x2, y2, radius);
+    }
+
+
+    @Override
+    public void rect(final double x, final double y, final double w, final double h)
+    {
+        this.g.rect(x, y, w, h);
+    }
+
+
+    @Override
+    public void closePath()
+    {
+        this.g.closePath();
+    }
+
+
+    @Override
+    public void fill()
+    {
+        this.g.fill();
+    }
+
+
+    @Override
+    public void stroke()
+    {
+        this.g.stroke();
+    }
+
+
+    @Override
+    public void fillRect(final double x, final double y, final double w, final double h)
+    {
+        this.g.fillRect(x, y, w, h);
+    }
+
+
+    @Override
+    public void strokeRect(final double x, final double y, final double w, final double h)
+    {
+        this.g.strokeRect(x, y, w, h);
+    }
+
+
+    @Override
+    public void clearRect(final double x, final double y, final double w, final double h)
+    {
+        this.g.clearRect(x, y, w, h);
+    }
+
+
+    @Override
+    public void fillOval(final double x, final double y, final double w, final double h)
+    {
+        this.g.fillOval(x, y, w, h);
+    }
+
+
+    @Override
+    public void strokeOval(final double x, final double y, final double w, final double h)
+    {
+        this.g.strokeOval(x, y, w, h);
+    }
+
+
+    @Override
+    public void fillRoundRect(final double x, final double y, final double w, final double h, final double arcWidth, final double arcHeight)
+    {
+        this.g.fillRoundRect(x, y, w, h, arcWidth, arcHeight);
+    }
+
+
+    @Override
+    public void strokeRoundRect(final double x, final double y, final double w, final double h, final double arcWidth, final double arcHeight)
+    {
+        this.g.strokeRoundRect(x, y, w, h, arcWidth, arcHeight);
+    }
+
+
+    @Override
+    public void strokeLine(final double x1, final double y1, final double x2, final double y2)
+    {
+        this.g.strokeLine(x1, y1, x2, y2);
+    }
+
+
+    @Override
+    public void fillText(final String text, final double x, final double y)
+    {
+        this.g.fillText(text, x, y);
+    }
+
+
+    @Override
+    public void strokeText(final String text, final double x, final double y)
+    {
+        this.g.strokeText(text, x, y);
+    }
+
+
+    @Override
+    public void drawImage(final Image image, final double x, final double y)
+    {
+        this.g.drawImage(image, x, y);
+    }
+
+
+    @Override
+    public void drawImage(final Image image, final double x, final double y, final double w, final double h)
+    {
+        this.g.drawImage(image, x, y, w, h);
+    }
+}
@@ -32,9 +32,12 @@
 package org.graphstream.ui.javafx.renderer;
 
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
+import javafx.scene.text.FontSmoothingType;
 import javafx.scene.transform.Affine;
 import org.graphstream.graph.Edge;
+import org.graphstream.graph.Element;
 import org.graphstream.graph.Node;
 import org.graphstream.ui.geom.Point3;
 import org.graphstream.ui.graphicGraph.GraphicEdge;
@@ -47,6 +50,7 @@ import org.graphstream.ui.graphicGraph.StyleGroupSet;
 import org.graphstream.ui.graphicGraph.stylesheet.StyleConstants;
 import org.graphstream.ui.graphicGraph.stylesheet.StyleConstants.FillMode;
 import org.graphstream.ui.graphicGraph.stylesheet.Value;
+import org.graphstream.ui.javafx.util.FontCache;
 import org.graphstream.ui.javafx.util.SwingUtils;
 import org.graphstream.ui.swingViewer.GraphRenderer;
 import org.graphstream.ui.swingViewer.LayerRenderer;
@@ -61,14 +65,25 @@ import java.awt.Container;
 import java.awt.Graphics2D;
 import java.io.PrintStream;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A base graph renderer for JavaFX.
  */
 public class FxGraphRenderer implements GraphRenderer
 {
+    /**
+     * whether nodes are rasterized as point splats rather than drawn as shapes
+     */
+    public enum PointMode
+    {
+        OFF, ON, AUTO
+    }
+
     private static final Logger logger = LoggerFactory.getLogger(FxGraphRenderer.class);
 
+    private static final long statsLogInterval = TimeUnit.SECONDS.toNanos(1);
+
     private GraphicGraph graph;
 
     private Selection selection = null;
@@ -81,6 +96,10 @@ public class FxGraphRenderer implements GraphRenderer
 
     private final SpriteRenderer spriteRenderer = new SpriteRenderer();
 
+    private final StyleCache styleCache = new StyleCache();
+
+    private FxDrawContext fxContext = null;
+
     private LayerRenderer backRenderer = null;
 
     private LayerRenderer foreRenderer = null;
@@ -89,18 +108,45 @@ public class FxGraphRenderer implements GraphRenderer
 
     private Color selectionFill = new Color(Color.ORANGE.getRed(), Color.ORANGE.getGreen(), Color.ORANGE.getBlue(), .15d);
 
-    private PrintStream fpsLog = null;
+    private final FrameStats frameStats = new FrameStats();
+
+    private final QualityGovernor governor = new QualityGovernor();
+
+    private final LevelOfDetail levelOfDetail = new LevelOfDetail();
+
+    private final PointSplatter splatter = new PointSplatter();
+
+    private PointMode pointMode = PointMode.OFF;
+
+    private boolean splatting = false;
 
-    private long T1 = 0;
+    private int pointThreshold = 200000;
 
-    private long steps = 0;
+    private int splatDrawn = 0;
 
-    private double sumFps = 0;
+    private int splatCulled = 0;
+
+    private PrintStream statsLog = null;
+
+    private long statsLoggedAt = System.nanoTime() - statsLogInterval;
+
+    private boolean refining = false;
+
+    private int renderedLevel = QualityGovernor.maxLevel;
+
+    private int drawnElements = 0;
+
+    private int culledElements = 0;
 
 
     public FxGraphRenderer()
     {
-
+        this.nodeRenderer.setStyleCache(this.styleCache);
+        this.edgeRenderer.setStyleCache(this.styleCache);
+        this.spriteRenderer.setStyleCache(this.styleCache);
+        this.nodeRenderer.setLevelOfDetail(this.levelOfDetail);
+        this.edgeRenderer.setLevelOfDetail(this.levelOfDetail);
+        this.spriteRenderer.setLevelOfDetail(this.levelOfDetail);
     }
 
 
@@ -112,25 +158,68 @@ public class FxGraphRenderer implements GraphRenderer
             throw new IllegalStateException("Renderer already open, cannot open twice.");
         }
         this.graph = graph;
+        this.graph.getStyleSheet().addListener(this.styleCache);
         this.camera = new FxCamera(graph);
+        this.prewarmFonts();
+    }
+
+
+    /**
+     * load the label fonts of every style group up front, so the first frame does not stall creating them
+     */
+    private void prewarmFonts()
+    {
+        final StyleGroupSet sgs = this.graph.getStyleGroups();
+        if (null == sgs)
+        {
+            return;
+        }
+        final FontCache fonts = FontCache.defaultFontCache();
+        for (final StyleGroup group : sgs.groups())
+        {
+            final ResolvedStyle style = this.styleCache.get(group);
+            if (StyleConstants.TextMode.HIDDEN.equals(style.getTextMode()))
+            {
+                continue;
+            }
+            final int styledSize = (int) Math.round(style.getTextSize());
+            final int minSize = this.nodeRenderer.isAutoScale() ? this.nodeRenderer.getMinFontSize() : styledSize;
+            final int maxSize = this.nodeRenderer.isAutoScale() ? Math.max(this.nodeRenderer.getMaxFontSize(), styledSize) : styledSize;
+            fonts.prewarm(style.getTextFont(), style.getTextStyle(), minSize, maxSize);
+        }
     }
 
 
     @Override
     public void close()
     {
-        if (this.fpsLog != null)
+        if (this.statsLog != null)
         {
-            this.fpsLog.flush();
-            this.fpsLog.close();
-            this.fpsLog = null;
+            this.statsLog.flush();
+            this.statsLog.close();
+            this.statsLog = null;
         }
 
+        if (this.graph != null)
+        {
+            this.graph.getStyleSheet().removeListener(this.styleCache);
+        }
+        this.styleCache.clear();
         this.camera = null;
         this.graph = null;
     }
 
 
+    /**
+     * drop the resolved styles of groups an element moved between
+     */
+    public void styleChanged(final StyleGroup oldStyle, final StyleGroup style)
+    {
+        this.styleCache.invalidate(oldStyle);
+        this.styleCache.invalidate(style);
+    }
+
+
     @Override
     public void beginSelectionAt(double x1, double y1)
     {
@@ -189,6 +278,19 @@ public class FxGraphRenderer implements GraphRenderer
 
 
     public void render(GraphicsContext g, double x, double y, double width, double height)
+    {
+        if (null == this.fxContext || this.fxContext.getGraphicsContext() != g)
+        {
+            this.fxContext = new FxDrawContext(g);
+        }
+        this.render(this.fxContext, x, y, width, height);
+    }
+
+
+    /**
+     * render a frame through any drawing backend, such as a headless counting or recording one
+     */
+    public void render(DrawContext g, double x, double y, double width, double height)
     {
         if (null == this.graph)
         {
@@ -207,6 +309,7 @@ public class FxGraphRenderer implements GraphRenderer
         this.beginFrame();
         try
         {
+            this.applyQuality(g);
             if (this.camera.getGraphViewport() == null && this.camera.getMetrics().diagonal == 0 && (this.graph.getNodeCount() == 0 && this.graph.getSpriteCount() == 0))
             {
                 displayNothingToDo(g, width, height);
@@ -216,7 +319,9 @@ public class FxGraphRenderer implements GraphRenderer
                 this.camera.setPadding(this.graph);
                 this.camera.setViewport(x, y, width, height);
                 this.renderGraph(g);
+                final long start = System.nanoTime();
                 this.renderSelection(g);
+                this.frameStats.record(FrameStats.Phase.SELECTION, start);
             }
         }
         finally
@@ -234,6 +339,105 @@ public class FxGraphRenderer implements GraphRenderer
     }
 
 
+    /**
+     * @return per-phase timings and element counts of the recent frames
+     */
+    public FrameStats getFrameStats()
+    {
+        return this.frameStats;
+    }
+
+
+    /**
+     * @return the governor trading detail for frame time, to set its target or disable it
+     */
+    public QualityGovernor getQualityGovernor()
+    {
+        return this.governor;
+    }
+
+
+    public PointMode getPointMode()
+    {
+        return this.pointMode;
+    }
+
+
+    /**
+     * choose how nodes are drawn
+     * <p>
+     * As point splats, consecutive node groups are filled in parallel into an
+     * image that is drawn before the next edge or sprite group, so the style
+     * z-order is kept. Only the group fill colour is used, and labels, icons,
+     * strokes and per-element colours are left out. Node contexts are not
+     * computed, but picking and selection still work from the node geometry.
+     * Nodes are drawn as shapes by default.
+     *
+     * @param mode {@link PointMode#AUTO} splats once the graph has more than {@link #getPointThreshold()} nodes
+     */
+    public void setPointMode(final PointMode mode)
+    {
+        if (null == mode)
+        {
+            throw new IllegalArgumentException("Mode cannot be null.");
+        }
+        this.pointMode = mode;
+    }
+
+
+    public int getPointThreshold()
+    {
+        return this.pointThreshold;
+    }
+
+
+    public void setPointThreshold(final int threshold)
+    {
+        if (threshold < 0)
+        {
+            throw new IllegalArgumentException("Threshold cannot be negative.");
+        }
+        this.pointThreshold = threshold;
+    }
+
+
+    /**
+     * @return true if the last frame was drawn with less detail than the stylesheet asks for
+     */
+    public boolean needsRefinement()
+    {
+        return this.renderedLevel < QualityGovernor.maxLevel;
+    }
+
+
+    /**
+     * draw the next frame at full quality, e.g. once the view has settled after
+     * degraded frames; its time is not fed back to the governor
+     */
+    public void refine()
+    {
+        this.refining = true;
+    }
+
+
+    /**
+     * @return the number of elements drawn during the last frame
+     */
+    public int getDrawnElementCount()
+    {
+        return this.drawnElements;
+    }
+
+
+    /**
+     * @return the number of elements skipped as off-screen during the last frame
+     */
+    public int getCulledElementCount()
+    {
+        return this.culledElements;
+    }
+
+
     public Color getSelectionStroke()
     {
         return selectionStroke;
@@ -271,64 +475,87 @@ public class FxGraphRenderer implements GraphRenderer
         this.nodeRenderer.clear();
         this.edgeRenderer.clear();
         this.spriteRenderer.clear();
+        this.drawnElements = 0;
+        this.culledElements = 0;
+        this.frameStats.beginFrame();
+    }
+
+
+    /**
+     * pass the governor level to the element renderers, honouring the ui.quality and ui.antialias graph attributes
+     */
+    private void applyQuality(final DrawContext g)
+    {
+        // ui.quality asks for fidelity first, only icons may then be given up
+        this.governor.setFloor(this.graph.hasAttribute("ui.quality") ? QualityGovernor.labelsLevel : QualityGovernor.minLevel);
+        final int level = this.refining ? QualityGovernor.maxLevel : this.governor.getLevel();
+        this.renderedLevel = level;
+        this.nodeRenderer.setQuality(level);
+        this.edgeRenderer.setQuality(level);
+        this.spriteRenderer.setQuality(level);
+        final boolean antialias = this.graph.hasAttribute("ui.antialias") && level >= QualityGovernor.iconsLevel;
+        g.setFontSmoothingType(antialias ? FontSmoothingType.LCD : FontSmoothingType.GRAY);
+    }
+
+
+    private void endFrame()
+    {
+        this.frameStats.endFrame(this.drawnElements, this.culledElements);
+        if (!this.refining)
+        {
+            this.governor.frameRendered(this.frameStats.getLast(FrameStats.Phase.FRAME));
+        }
+        this.refining = false;
+        this.nodeRenderer.clear();
+        this.edgeRenderer.clear();
+        this.spriteRenderer.clear();
 
         if (!this.graph.hasLabel("ui.log"))
         {
             return;
         }
 
-        if (null == this.fpsLog)
+        if (null == this.statsLog)
         {
             try
             {
                 final CharSequence log = this.graph.getLabel("ui.log");
                 if (log != null)
                 {
-                    this.fpsLog = new PrintStream(log.toString());
+                    this.statsLog = new PrintStream(log.toString());
                 }
             }
             catch (final Exception e)
             {
-                this.fpsLog = null;
-                logger.warn("Unable to construct print stream for fps log.", e);
+                this.statsLog = null;
+                logger.warn("Unable to construct print stream for frame stats log.", e);
             }
         }
 
-        if (this.fpsLog != null)
+        // the summary sorts every phase window, so it is written at a fixed rate rather than per frame
+        final long now = System.nanoTime();
+        if (this.statsLog != null && now - this.statsLoggedAt >= statsLogInterval)
         {
-            this.T1 = System.currentTimeMillis();
+            this.statsLoggedAt = now;
+            this.statsLog.println(this.frameStats);
         }
     }
 
 
-    private void endFrame()
+    private void renderGraph(final DrawContext g)
     {
-        this.nodeRenderer.clear();
-        this.edgeRenderer.clear();
-        this.spriteRenderer.clear();
-
-        if (null == this.fpsLog)
-        {
-            return;
-        }
-
-        this.steps += 1;
-        long T2 = System.currentTimeMillis();
-        long time = T2 - T1;
-        double fps = 1000.0 / time;
-        this.sumFps += fps;
-        this.fpsLog.printf("%.3f   %d   %.3f%n", fps, time, (this.sumFps / this.steps));
-    }
-
-
-    private void renderGraph(final GraphicsContext g)
-    {
-        this.camera.pushView(this.graph, g);
+        long start = System.nanoTime();
+        this.camera.pushView(this.graph, g.getGraphicsContext());
+        this.splatting = this.isSplatting();
         this.computeGraphElements(g);
+        start = this.frameStats.record(FrameStats.Phase.COMPUTE, start);
         g.setTransform(new Affine());
         this.renderGraphBackground(g);
-        this.renderBackLayer(new FXGraphics2D(g));
+        start = this.frameStats.record(FrameStats.Phase.BACKGROUND, start);
+        this.renderBackLayer(g);
+        this.frameStats.record(FrameStats.Phase.BACK_LAYER, start);
         this.renderGraphElements(g);
+        start = System.nanoTime();
         StyleGroup style = this.graph.getStyle();
         if (!StyleConstants.StrokeMode.NONE.equals(style.getStrokeMode()) && style.getStrokeWidth().value > 0)
         {
@@ -339,11 +566,13 @@ public class FxGraphRenderer implements GraphRenderer
             g.setLineWidth(metrics.lengthToGu(stroke));
             g.strokeRect(metrics.lo.x, metrics.lo.y + px1, metrics.size.data[0] - px1, metrics.size.data[1] - px1);
         }
-        this.renderForeLayer(new FXGraphics2D(g));
+        start = this.frameStats.record(FrameStats.Phase.BACKGROUND, start);
+        this.renderForeLayer(g);
+        this.frameStats.record(FrameStats.Phase.FORE_LAYER, start);
     }
 
 
-    protected void renderGraphBackground(final GraphicsContext g)
+    protected void renderGraphBackground(final DrawContext g)
     {
         final StyleGroup group = graph.getStyle();
         final double w = camera.getMetrics().viewport[2] + 1;
@@ -360,28 +589,32 @@ public class FxGraphRenderer implements GraphRenderer
     }
 
 
-    private void computeGraphElements(final GraphicsContext g)
+    private void computeGraphElements(final DrawContext g)
     {
+        // contexts are retained between frames and only refreshed when their inputs change
+        this.camera.beginElements();
+        this.camera.beginIndex();
         for (final Node node : this.graph.getEachNode())
         {
             final StyleGroup group = this.graph.getStyleGroups().getStyleFor(node);
-            ElementContext context = null;
             if (group != null)
             {
-                this.nodeRenderer.pushStyle(group, g, this.camera);
-                if (node instanceof GraphicNode)
+                this.nodeRenderer.pushGeometry(group, g, this.camera, (GraphicNode) node);
+                if (this.splatting)
                 {
-                    this.nodeRenderer.pushDynStyle(group, g, this.camera, (GraphicNode) node);
+                    // splats only read the geometry buffer, so no context is built
+                    this.nodeRenderer.putGeometry(group, this.camera, (GraphicNode) node);
                 }
-                context = this.nodeRenderer.computeElement(group, g, this.camera, (GraphicNode) node);
-            }
-            if (context != null)
-            {
-                this.camera.putElement(context);
+                else
+                {
+                    final ElementContext context = this.nodeRenderer.computeElement(group, g, this.camera, (GraphicNode) node);
+                    this.camera.putNodeElement((GraphicNode) node, context, NodeGeometry.shapeCode(this.styleCache.get(group).getShape()));
+                }
+                this.camera.indexElement((GraphicNode) node);
             }
             else
             {
-                this.camera.removeElement(node.getId());
+                this.camera.removeElement((GraphicNode) node);
             }
         }
         for (final Edge edge : this.graph.getEachEdge())
@@ -390,20 +623,12 @@ public class FxGraphRenderer implements GraphRenderer
             ElementContext context = null;
             if (group != null)
             {
-                this.edgeRenderer.pushStyle(group, g, this.camera);
-                if (edge instanceof GraphicEdge)
-                {
-                    this.edgeRenderer.pushDynStyle(group, g, this.camera, (GraphicEdge) edge);
-                }
+                this.edgeRenderer.pushGeometry(group, g, this.camera, (GraphicEdge) edge);
                 context = this.edgeRenderer.computeElement(group, g, this.camera, (GraphicEdge) edge);
             }
             if (context != null)
             {
-                this.camera.putElement(context);
-            }
-            else
-            {
-                this.camera.removeElement(edge.getId());
+                this.camera.putElement((GraphicEdge) edge, context);
             }
         }
         for (final GraphicSprite sprite : this.graph.spriteSet())
@@ -412,53 +637,152 @@ public class FxGraphRenderer implements GraphRenderer
             ElementContext context = null;
             if (group != null)
             {
-                this.spriteRenderer.pushStyle(group, g, this.camera);
-                this.spriteRenderer.pushDynStyle(group, g, this.camera, sprite);
+                this.spriteRenderer.pushGeometry(group, g, this.camera, sprite);
                 context = this.spriteRenderer.computeElement(group, g, this.camera, sprite);
+                this.camera.indexElement(sprite);
             }
             if (context != null)
             {
-                this.camera.putElement(context);
-            }
-            else
-            {
-                this.camera.removeElement(sprite.getId());
+                this.camera.putElement(sprite, context);
             }
         }
+        this.camera.endIndex();
+        this.camera.endElements();
     }
 
 
-    private void renderGraphElements(final GraphicsContext g)
+    private void renderGraphElements(final DrawContext g)
     {
         final StyleGroupSet sgs = graph.getStyleGroups();
         if (null == sgs)
         {
             return;
         }
+        final long elementsStart = System.nanoTime();
+        long start = elementsStart;
+        int level = 0;
+        final boolean splat = this.splatting;
+        if (splat)
+        {
+            final double[] viewport = this.camera.getMetrics().viewport;
+            this.splatter.begin((int) Math.ceil(viewport[2]), (int) Math.ceil(viewport[3]));
+        }
+        this.splatDrawn = 0;
+        this.splatCulled = 0;
         for (final Iterable<StyleGroup> groups : sgs.zIndex())
         {
             for (final StyleGroup group : groups)
             {
+                // the renderers share the thresholds, loaded for each group in turn
+                this.levelOfDetail.resolve(this.graph, group);
                 switch (group.getType())
                 {
                     case NODE:
-                        this.nodeRenderer.render(group, g, camera);
+                        if (splat)
+                        {
+                            this.splatGroup(group);
+                        }
+                        else
+                        {
+                            this.nodeRenderer.render(group, g, camera);
+                        }
                         break;
                     case EDGE:
+                        this.drawSplats(g);
                         this.edgeRenderer.render(group, g, camera);
                         break;
                     case SPRITE:
+                        this.drawSplats(g);
                         this.spriteRenderer.render(group, g, camera);
                         break;
                     default:
                         break;
                 }
             }
+            start = this.frameStats.recordZIndex(level++, start);
+        }
+        if (splat)
+        {
+            this.drawSplats(g);
+            start = System.nanoTime();
+        }
+
+        // style and text time is reported apart from the element drawing it is nested in
+        final long styleNanos = this.nodeRenderer.getStyleNanos() + this.edgeRenderer.getStyleNanos() + this.spriteRenderer.getStyleNanos();
+        final long textNanos = this.nodeRenderer.getTextNanos() + this.edgeRenderer.getTextNanos() + this.spriteRenderer.getTextNanos();
+        this.frameStats.add(FrameStats.Phase.STYLE, styleNanos);
+        this.frameStats.add(FrameStats.Phase.TEXT, textNanos);
+        this.frameStats.add(FrameStats.Phase.ELEMENTS, start - elementsStart - styleNanos - textNanos);
+
+        this.drawnElements = this.nodeRenderer.getDrawnCount() + this.edgeRenderer.getDrawnCount() + this.spriteRenderer.getDrawnCount() + this.splatDrawn;
+        this.culledElements = this.nodeRenderer.getCulledCount() + this.edgeRenderer.getCulledCount() + this.spriteRenderer.getCulledCount() + this.splatCulled;
+    }
+
+
+    private boolean isSplatting()
+    {
+        switch (this.pointMode)
+        {
+            case ON:
+                return true;
+            case AUTO:
+                return this.graph.getNodeCount() > this.pointThreshold;
+            default:
+                return false;
+        }
+    }
+
+
+    /**
+     * draw the points queued since the last edge or sprite group, if any
+     */
+    private void drawSplats(final DrawContext g)
+    {
+        if (this.splatter.size() <= 0)
+        {
+            return;
+        }
+        final Image points = this.splatter.end();
+        if (points != null)
+        {
+            g.drawImage(points, 0, 0);
+        }
+    }
+
+
+    /**
+     * queue every node of the group as a square of its fill colour, sized from its screen geometry
+     */
+    private void splatGroup(final StyleGroup group)
+    {
+        if (StyleConstants.VisibilityMode.HIDDEN.equals(group.getVisibilityMode()) || FillMode.NONE.equals(group.getFillMode()))
+        {
+            return;
+        }
+        final int color = PointSplatter.pack(this.styleCache.get(group).getFillColor());
+        final NodeGeometry geometry = this.camera.getNodeGeometry();
+        for (final Element element : group.elements())
+        {
+            final GraphicElement node = (GraphicElement) element;
+            final int slot = this.camera.getNodeSlot(node);
+            if (slot < 0 || node.hidden)
+            {
+                continue;
+            }
+            final double size = 2d * Math.max(geometry.getHalfWidth(slot), geometry.getHalfHeight(slot));
+            if (this.splatter.add(geometry.getX(slot), geometry.getY(slot), size, color))
+            {
+                this.splatDrawn++;
+            }
+            else
+            {
+                this.splatCulled++;
+            }
         }
     }
 
 
-    private void renderSelection(final GraphicsContext g)
+    private void renderSelection(final DrawContext g)
     {
         if (null == this.selection)
         {
@@ -493,23 +817,24 @@ public class FxGraphRenderer implements GraphRenderer
     }
 
 
-    private void renderBackLayer(final Graphics2D g)
+    private void renderBackLayer(final DrawContext g)
     {
-        if (null == this.backRenderer)
+        // layers draw through awt and need a real canvas
+        if (null == this.backRenderer || null == g.getGraphicsContext())
         {
             return;
         }
-        this.renderLayer(this.backRenderer, g);
+        this.renderLayer(this.backRenderer, new FXGraphics2D(g.getGraphicsContext()));
     }
 
 
-    private void renderForeLayer(final Graphics2D g)
+    private void renderForeLayer(final DrawContext g)
     {
-        if (null == this.foreRenderer)
+        if (null == this.foreRenderer || null == g.getGraphicsContext())
         {
             return;
         }
-        this.renderLayer(this.foreRenderer, g);
+        this.renderLayer(this.foreRenderer, new FXGraphics2D(g.getGraphicsContext()));
     }
 
 
@@ -544,7 +869,7 @@ public class FxGraphRenderer implements GraphRenderer
     }
 
 
-    protected void displayNothingToDo(final GraphicsContext g, final double w, final double h)
+    protected void displayNothingToDo(final DrawContext g, final double w, final double h)
     {
         String msg1 = "Graph width/height/depth is zero !!";
         String msg2 = "Place components using the 'xyz' attribute.";
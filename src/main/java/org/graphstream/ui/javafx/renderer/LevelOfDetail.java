@@ -0,0 +1,177 @@
+/*
+ * Copyright 2006 - 2013
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.ui.javafx.renderer;
+
+import org.graphstream.ui.graphicGraph.GraphicGraph;
+import org.graphstream.ui.graphicGraph.StyleGroup;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * on-screen size thresholds below which details of an element are left out
+ * <p>
+ * Thresholds are in pixels and read from graph attributes, so they can be set
+ * for every group at once or for a single style group:
+ * <pre>
+ * graph.setAttribute("ui.lod.stroke-size", 4);          // every group
+ * graph.setAttribute("ui.lod.node#hub.label-size", 12); // the node#hub group only
+ * </pre>
+ * Nodes smaller than point-size are drawn as single pixels, nodes smaller
+ * than stroke-size lose their stroke and those smaller than icon-size their
+ * icon. Edges shorter than arrow-length lose their arrows and icons. Labels
+ * are drawn for nodes at least label-size large and for edges at least
+ * label-size long, at the edge midpoint.
+ */
+public class LevelOfDetail
+{
+    public static final String pointSizeKey = "point-size";
+
+    public static final String strokeSizeKey = "stroke-size";
+
+    public static final String iconSizeKey = "icon-size";
+
+    public static final String arrowLengthKey = "arrow-length";
+
+    public static final String labelSizeKey = "label-size";
+
+    private static final String[] keys = {pointSizeKey, strokeSizeKey, iconSizeKey, arrowLengthKey, labelSizeKey};
+
+    private static final double[] defaults = {1.5d, 3d, 8d, 6d, 0d};
+
+    private static final String prefix = "ui.lod.";
+
+    private static final String[] generalKeys = keysFor(null);
+
+    private final Map<String, String[]> groupKeys = new HashMap<>();
+
+    private final double[] values = defaults.clone();
+
+
+    /**
+     * load the thresholds of a group, falling back to graph wide values and then to the defaults
+     */
+    public LevelOfDetail resolve(final GraphicGraph graph, final StyleGroup group)
+    {
+        final String[] specific = null == group ? null : this.groupKeys.computeIfAbsent(group.getId(), LevelOfDetail::keysFor);
+        for (int i = 0; i < keys.length; i++)
+        {
+            double value = defaults[i];
+            if (graph != null)
+            {
+                final double general = number(graph.getAttribute(generalKeys[i]));
+                if (!Double.isNaN(general))
+                {
+                    value = general;
+                }
+                if (specific != null)
+                {
+                    final double own = number(graph.getAttribute(specific[i]));
+                    if (!Double.isNaN(own))
+                    {
+                        value = own;
+                    }
+                }
+            }
+            this.values[i] = value;
+        }
+        return this;
+    }
+
+
+    public void reset()
+    {
+        System.arraycopy(defaults, 0, this.values, 0, defaults.length);
+    }
+
+
+    public double getPointSize()
+    {
+        return this.values[0];
+    }
+
+
+    public double getStrokeSize()
+    {
+        return this.values[1];
+    }
+
+
+    public double getIconSize()
+    {
+        return this.values[2];
+    }
+
+
+    public double getArrowLength()
+    {
+        return this.values[3];
+    }
+
+
+    public double getLabelSize()
+    {
+        return this.values[4];
+    }
+
+
+    private static String[] keysFor(final String groupId)
+    {
+        final String[] specific = new String[keys.length];
+        for (int i = 0; i < keys.length; i++)
+        {
+            specific[i] = null == groupId ? prefix + keys[i] : prefix + groupId + "." + keys[i];
+        }
+        return specific;
+    }
+
+
+    private static double number(final Object value)
+    {
+        if (value instanceof Number)
+        {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof CharSequence)
+        {
+            try
+            {
+                return Double.parseDouble(value.toString().trim());
+            }
+            catch (final NumberFormatException e)
+            {
+                return Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,169 @@
+package org.graphstream.ui.javafx.renderer;
+
+import org.graphstream.ui.graphicGraph.stylesheet.StyleConstants;
+
+import java.util.Arrays;
+
+/**
+ * screen geometry of every node laid out in primitive arrays
+ * <p>
+ * Each node rendered during a frame is given a slot; its centre, half extents
+ * and shape are stored at that slot so that node, edge, label and picking code
+ * can share them without going through per-node objects.
+ */
+public class NodeGeometry
+{
+    public static final byte SHAPE_CIRCLE = 0;
+
+    public static final byte SHAPE_BOX = 1;
+
+    public static final byte SHAPE_ROUNDED_BOX = 2;
+
+    public static final byte SHAPE_DIAMOND = 3;
+
+    public static final byte SHAPE_OTHER = 4;
+
+    private double[] positions = new double[128];
+
+    private double[] extents = new double[128];
+
+    private byte[] shapes = new byte[64];
+
+    private int size = 0;
+
+
+    public static byte shapeCode(final StyleConstants.Shape shape)
+    {
+        if (null == shape)
+        {
+            return SHAPE_OTHER;
+        }
+        switch (shape)
+        {
+            case CIRCLE:
+                return SHAPE_CIRCLE;
+            case BOX:
+                return SHAPE_BOX;
+            case ROUNDED_BOX:
+                return SHAPE_ROUNDED_BOX;
+            case DIAMOND:
+                return SHAPE_DIAMOND;
+            default:
+                return SHAPE_OTHER;
+        }
+    }
+
+
+    public void clear()
+    {
+        this.size = 0;
+    }
+
+
+    public int size()
+    {
+        return this.size;
+    }
+
+
+    /**
+     * @return the slot the node geometry was stored at
+     */
+    public int add(final double x, final double y, final double halfWidth, final double halfHeight, final byte shape)
+    {
+        if (this.size >= this.shapes.length)
+        {
+            final int capacity = this.shapes.length * 2;
+            this.positions = Arrays.copyOf(this.positions, capacity * 2);
+            this.extents = Arrays.copyOf(this.extents, capacity * 2);
+            this.shapes = Arrays.copyOf(this.shapes, capacity);
+        }
+        final int slot = this.size++;
+        this.positions[slot * 2] = x;
+        this.positions[slot * 2 + 1] = y;
+        this.extents[slot * 2] = halfWidth;
+        this.extents[slot * 2 + 1] = halfHeight;
+        this.shapes[slot] = shape;
+        return slot;
+    }
+
+
+    public double getX(final int slot)
+    {
+        return this.positions[slot * 2];
+    }
+
+
+    public double getY(final int slot)
+    {
+        return this.positions[slot * 2 + 1];
+    }
+
+
+    public double getHalfWidth(final int slot)
+    {
+        return this.extents[slot * 2];
+    }
+
+
+    public double getHalfHeight(final int slot)
+    {
+        return this.extents[slot * 2 + 1];
+    }
+
+
+    public byte getShape(final int slot)
+    {
+        return this.shapes[slot];
+    }
+
+
+    /**
+     * packed x/y screen positions, two values per slot
+     */
+    public double[] getPositions()
+    {
+        return this.positions;
+    }
+
+
+    /**
+     * packed half width/height extents, two values per slot
+     */
+    public double[] getExtents()
+    {
+        return this.extents;
+    }
+
+
+    public boolean contains(final int slot, final double x, final double y)
+    {
+        return Math.abs(x - this.getX(slot)) <= this.getHalfWidth(slot) && Math.abs(y - this.getY(slot)) <= this.getHalfHeight(slot);
+    }
+
+
+    /**
+     * find where the segment from the centre of a node towards a point leaves
+     * the node bounds
+     *
+     * @param out receives the x/y of the boundary point
+     * @return false if the point lies within the node bounds
+     */
+    public boolean boundaryPoint(final int slot, final double towardX, final double towardY, final double[] out)
+    {
+        final double cx = this.getX(slot);
+        final double cy = this.getY(slot);
+        final double dx = towardX - cx;
+        final double dy = towardY - cy;
+        final double tx = dx != 0 ? this.getHalfWidth(slot) / Math.abs(dx) : Double.POSITIVE_INFINITY;
+        final double ty = dy != 0 ? this.getHalfHeight(slot) / Math.abs(dy) : Double.POSITIVE_INFINITY;
+        final double t = Math.min(tx, ty);
+        if (t > 1d)
+        {
+            return false;
+        }
+        out[0] = cx + dx * t;
+        out[1] = cy + dy * t;
+        return true;
+    }
+}
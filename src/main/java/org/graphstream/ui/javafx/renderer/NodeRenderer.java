@@ -31,135 +31,386 @@
  */
 package org.graphstream.ui.javafx.renderer;
 
-import javafx.geometry.Point2D;
-import javafx.geometry.Rectangle2D;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 import javafx.scene.transform.Affine;
+import org.graphstream.ui.geom.Point3;
 import org.graphstream.ui.graphicGraph.GraphicElement;
 import org.graphstream.ui.graphicGraph.GraphicNode;
 import org.graphstream.ui.graphicGraph.StyleGroup;
-import org.graphstream.ui.graphicGraph.stylesheet.StyleConstants;
+import org.graphstream.ui.graphicGraph.stylesheet.StyleConstants.Shape;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 
 public class NodeRenderer extends ElementRenderer
 {
+    private static final double diamondRotation = Math.sqrt(2) / 2d;
+
+    private static final double cornerRadius = 2d;
+
+    private final Point3 screenPoint = new Point3();
+
+    private boolean batching = false;
+
+    private ResolvedStyle current = null;
+
+    private boolean dynamicStyle = false;
+
+    private int[] batched = new int[256];
+
+    private int numBatched = 0;
+
+    private final List<GraphicElement> iconElements = new ArrayList<>();
+
+
     @Override
-    protected ElementContext computeElement(final StyleGroup group, final GraphicsContext g, final FxCamera camera, final GraphicElement element)
+    protected ElementContext computeElement(final StyleGroup group, final DrawContext g, final FxCamera camera, final GraphicElement element)
     {
         final GraphicNode node = (GraphicNode) element;
-        final Point2D pos = camera.graphToScreen(new Point2D(node.x, node.y));
-        if (null == pos)
+        final ElementContext existing = camera.getElement(node);
+        final long version = camera.getTransformVersion();
+
+        switch (this.getStyle(group).getShape())
         {
-            return null;
+            case BOX:
+            case ROUNDED_BOX:
+                final SquareContext square = existing instanceof SquareContext ? (SquareContext) existing : new SquareContext(element);
+                if (square.isCurrent(node.x, node.y, this.getWidth(), this.getHeight(), this.getPaddingX(), this.getPaddingY(), version))
+                {
+                    return square;
+                }
+                camera.transformGuToPx(node.x, node.y, 0, this.screenPoint);
+                final double minx = this.screenPoint.x - this.getWidth() / 2d - this.getPaddingX();
+                final double miny = this.screenPoint.y - this.getHeight() / 2d - this.getPaddingY();
+                square.update(this.screenPoint.x, this.screenPoint.y, minx, miny, this.getWidth() + this.getPaddingX() * 2d, this.getHeight() + this.getPaddingY() * 2);
+                square.setCurrent(node.x, node.y, this.getWidth(), this.getHeight(), this.getPaddingX(), this.getPaddingY(), version);
+                return square;
+            case CIRCLE:
+            default:
+                final CircleContext circle = existing instanceof CircleContext ? (CircleContext) existing : new CircleContext(element);
+                if (circle.isCurrent(node.x, node.y, this.getWidth(), this.getHeight(), this.getPaddingX(), this.getPaddingY(), version))
+                {
+                    return circle;
+                }
+                camera.transformGuToPx(node.x, node.y, 0, this.screenPoint);
+                final double sqrt2 = Math.sqrt(2);
+                final double radiusx = this.getWidth() / 2d * sqrt2 + this.getPaddingX();
+                final double radiusy = this.getHeight() / 2d * sqrt2 + this.getPaddingY();
+                circle.update(this.screenPoint.x, this.screenPoint.y, radiusx, radiusy);
+                circle.setCurrent(node.x, node.y, this.getWidth(), this.getHeight(), this.getPaddingX(), this.getPaddingY(), version);
+                return circle;
         }
+    }
 
-        final double halfWidth = this.getWidth() / 2d;
-        final double halfHeight = this.getHeight() / 2d;
 
-        switch (group.getShape())
+    /**
+     * store only the screen geometry of a node, with the extents {@link #computeElement} gives it,
+     * for nodes that are drawn without a context
+     */
+    protected boolean putGeometry(final StyleGroup group, final FxCamera camera, final GraphicNode node)
+    {
+        final Shape shape = this.getStyle(group).getShape();
+        camera.transformGuToPx(node.x, node.y, 0, this.screenPoint);
+        final double halfWidth;
+        final double halfHeight;
+        switch (shape)
         {
             case BOX:
             case ROUNDED_BOX:
-                final double minx = pos.getX() - halfWidth - this.getPaddingX();
-                final double miny = pos.getY() - halfHeight - this.getPaddingY();
-                return new SquareContext(element, pos, new Rectangle2D(minx, miny, this.getWidth() + this.getPaddingX() * 2d, this.getHeight() + this.getPaddingY() * 2));
+                halfWidth = this.getWidth() / 2d + this.getPaddingX();
+                halfHeight = this.getHeight() / 2d + this.getPaddingY();
+                break;
             case CIRCLE:
             default:
                 final double sqrt2 = Math.sqrt(2);
-                final double radiusx = halfWidth * sqrt2 + this.getPaddingX();
-                final double radiusy = halfHeight * sqrt2 + this.getPaddingY();
-                return new CircleContext(element, pos, radiusx, radiusy);
+                halfWidth = this.getWidth() / 2d * sqrt2 + this.getPaddingX();
+                halfHeight = this.getHeight() / 2d * sqrt2 + this.getPaddingY();
+                break;
         }
+        return camera.putNodeGeometry(node, this.screenPoint.x, this.screenPoint.y, halfWidth, halfHeight, NodeGeometry.shapeCode(shape));
     }
 
 
     @Override
-    protected void elementInvisible(StyleGroup group, GraphicsContext g, FxCamera camera, GraphicElement element)
+    protected void elementInvisible(StyleGroup group, DrawContext g, FxCamera camera, GraphicElement element)
     {
         // do nothing
     }
 
 
     @Override
-    protected void renderElement(StyleGroup group, GraphicsContext g, FxCamera camera, GraphicElement element)
+    public void clear()
     {
-        final GraphicNode node = (GraphicNode) element;
-        final Point2D pos = camera.graphToScreen(new Point2D(node.x, node.y));
-        this.renderElement(group, g, camera, node, pos);
+        super.clear();
+        this.numBatched = 0;
+        this.iconElements.clear();
     }
 
 
-    protected void renderElement(StyleGroup group, GraphicsContext g, FxCamera camera, GraphicElement element, Point2D pos)
+    @Override
+    protected void beginBatch(StyleGroup group, DrawContext g, FxCamera camera)
+    {
+        this.batching = true;
+    }
+
+
+    @Override
+    protected void endBatch(StyleGroup group, DrawContext g, FxCamera camera)
+    {
+        this.flush(group, g, camera);
+        this.batching = false;
+    }
+
+
+    @Override
+    protected void pushStyle(StyleGroup group, DrawContext g, FxCamera camera)
+    {
+        this.flush(group, g, camera);
+        this.dynamicStyle = false;
+        this.current = this.getStyle(group);
+        super.pushStyle(group, g, camera);
+    }
+
+
+    @Override
+    protected void pushDynStyle(StyleGroup group, DrawContext g, FxCamera camera, GraphicElement element)
+    {
+        this.flush(group, g, camera);
+        this.dynamicStyle = true;
+        this.current = this.getStyle(group);
+        super.pushDynStyle(group, g, camera, element);
+    }
+
+
+    @Override
+    protected void renderElement(StyleGroup group, DrawContext g, FxCamera camera, GraphicElement element)
     {
         if (null == group || null == element)
         {
             return;
         }
 
-        final ElementContext ctx = camera.getElement(element.getId());
-        if (null == ctx)
+        final int slot = camera.getNodeSlot(element);
+        if (slot < 0)
         {
             return;
         }
 
-        final Rectangle2D bounds = ctx.getBounds();
-        if (null == pos || null == bounds)
+        final NodeGeometry geometry = camera.getNodeGeometry();
+        final double size = screenSize(geometry, slot);
+        if (size < this.getLevelOfDetail().getPointSize() && (!this.batching || this.dynamicStyle))
         {
+            // sub-pixel nodes are a single pixel of their fill colour
+            g.fillRect(geometry.getX(slot) - .5d, geometry.getY(slot) - .5d, 1d, 1d);
             return;
         }
+        final boolean shapes = this.getQuality() >= QualityGovernor.shapesLevel;
+        if (!this.batching || this.dynamicStyle || (shapes && NodeGeometry.SHAPE_OTHER == geometry.getShape(slot) && size >= this.getLevelOfDetail().getPointSize()))
+        {
+            this.renderElement(group, g, camera, element, geometry.getX(slot), geometry.getY(slot), geometry.getHalfWidth(slot) * 2d, geometry.getHalfHeight(slot) * 2d);
+            return;
+        }
+
+        if (this.numBatched >= this.batched.length)
+        {
+            this.batched = Arrays.copyOf(this.batched, this.batched.length * 2);
+        }
+        this.batched[this.numBatched++] = slot;
+        if (this.current.getIcon() != null && size >= this.getLevelOfDetail().getIconSize())
+        {
+            this.iconElements.add(element);
+        }
+    }
+
+
+    /**
+     * emit every batched node as one path, filled and stroked once, then draw
+     * their icons on top
+     */
+    private void flush(StyleGroup group, DrawContext g, FxCamera camera)
+    {
+        final NodeGeometry geometry = camera.getNodeGeometry();
+        if (this.numBatched > 0)
+        {
+            // the lowest quality level draws every node as a plain box
+            final boolean shapes = this.getQuality() >= QualityGovernor.shapesLevel;
+            final double pointSize = this.getLevelOfDetail().getPointSize();
+            final double strokeSize = Math.max(pointSize, this.getLevelOfDetail().getStrokeSize());
+            boolean allStroked = true;
+            g.beginPath();
+            for (int i = 0; i < this.numBatched; i++)
+            {
+                final int slot = this.batched[i];
+                final double size = screenSize(geometry, slot);
+                if (size < pointSize)
+                {
+                    g.rect(geometry.getX(slot) - .5d, geometry.getY(slot) - .5d, 1d, 1d);
+                }
+                else
+                {
+                    appendShape(g, geometry, slot, shapes ? geometry.getShape(slot) : NodeGeometry.SHAPE_BOX);
+                }
+                allStroked &= size >= strokeSize;
+            }
+            if (this.current.isFilled())
+            {
+                g.fill();
+            }
+            if (this.current.isStroked() && shapes)
+            {
+                if (!allStroked)
+                {
+                    // small nodes go without a stroke, outline only the others
+                    g.beginPath();
+                    for (int i = 0; i < this.numBatched; i++)
+                    {
+                        final int slot = this.batched[i];
+                        if (screenSize(geometry, slot) >= strokeSize)
+                        {
+                            appendShape(g, geometry, slot, geometry.getShape(slot));
+                        }
+                    }
+                }
+                g.stroke();
+            }
+            this.numBatched = 0;
+        }
+
+        for (final GraphicElement element : this.iconElements)
+        {
+            final int slot = camera.getNodeSlot(element);
+            final Image icon = this.renderIcon(group, g, camera, element, this.getWidth(), this.getHeight());
+            if (icon != null && slot >= 0)
+            {
+                drawIcon(g, icon, geometry.getX(slot), geometry.getY(slot), this.getWidth(), this.getHeight());
+            }
+        }
+        this.iconElements.clear();
+    }
+
+
+    private static double screenSize(NodeGeometry geometry, int slot)
+    {
+        return 2d * Math.max(geometry.getHalfWidth(slot), geometry.getHalfHeight(slot));
+    }
+
+
+    @Override
+    protected boolean isLabelSized(FxCamera camera, GraphicElement element)
+    {
+        final int slot = camera.getNodeSlot(element);
+        return slot < 0 || screenSize(camera.getNodeGeometry(), slot) >= this.getLevelOfDetail().getLabelSize();
+    }
+
+
+    private static void appendShape(DrawContext g, NodeGeometry geometry, int slot, byte shape)
+    {
+        final double x = geometry.getX(slot);
+        final double y = geometry.getY(slot);
+        final double hw = geometry.getHalfWidth(slot);
+        final double hh = geometry.getHalfHeight(slot);
+        switch (shape)
+        {
+            case NodeGeometry.SHAPE_BOX:
+                g.rect(x - hw, y - hh, hw * 2d, hh * 2d);
+                break;
+            case NodeGeometry.SHAPE_ROUNDED_BOX:
+                final double r = Math.min(cornerRadius, Math.min(hw, hh));
+                g.moveTo(x - hw + r, y - hh);
+                g.arcTo(x + hw, y - hh, x + hw, y + hh, r);
+                g.arcTo(x + hw, y + hh, x - hw, y + hh, r);
+                g.arcTo(x - hw, y + hh, x - hw, y - hh, r);
+                g.arcTo(x - hw, y - hh, x + hw, y - hh, r);
+                g.closePath();
+                break;
+            case NodeGeometry.SHAPE_DIAMOND:
+                // the rounded box corners turned by 45 degrees around the centre
+                final double a = (hw - hh) * diamondRotation;
+                final double b = (hw + hh) * diamondRotation;
+                final double dr = Math.min(cornerRadius, Math.min(hw, hh));
+                final double step = dr * diamondRotation;
+                g.moveTo(x - a + step, y - b + step);
+                g.arcTo(x + b, y + a, x + a, y + b, dr);
+                g.arcTo(x + a, y + b, x - b, y - a, dr);
+                g.arcTo(x - b, y - a, x - a, y - b, dr);
+                g.arcTo(x - a, y - b, x + b, y + a, dr);
+                g.closePath();
+                break;
+            case NodeGeometry.SHAPE_CIRCLE:
+            default:
+                g.moveTo(x + hw, y);
+                g.arc(x, y, hw, hh, 0d, 360d);
+                g.closePath();
+        }
+    }
+
+
+    protected void renderElement(StyleGroup group, DrawContext g, FxCamera camera, GraphicElement element, double x, double y, double width, double height)
+    {
+        final ResolvedStyle style = this.getStyle(group);
+        final LevelOfDetail detail = this.getLevelOfDetail();
+        final double size = Math.max(width, height);
+
+        // same thresholds as the batched path: plain boxes at the lowest level, small nodes go without stroke or icon
+        final boolean shapes = this.getQuality() >= QualityGovernor.shapesLevel;
+        final Shape shape = shapes ? style.getShape() : Shape.BOX;
+        final boolean stroked = style.isStroked() && shapes && size >= Math.max(detail.getPointSize(), detail.getStrokeSize());
 
         final Affine transform = new Affine();
-        transform.appendTranslation(ctx.getPosition().getX(), ctx.getPosition().getY());
-        switch (group.getShape())
+        transform.appendTranslation(x, y);
+        switch (shape)
         {
             case DIAMOND:
                 transform.appendRotation(45d);
         }
         g.setTransform(transform);
 
-        if (!StyleConstants.FillMode.NONE.equals(group.getFillMode()))
+        if (style.isFilled())
         {
-            switch (group.getShape())
+            switch (shape)
             {
                 case BOX:
-                    g.fillRect(-bounds.getWidth() / 2d, -bounds.getHeight() / 2d, bounds.getWidth(), bounds.getHeight());
+                    g.fillRect(-width / 2d, -height / 2d, width, height);
                     break;
                 case DIAMOND:
                 case ROUNDED_BOX:
-                    g.fillRoundRect(-bounds.getWidth() / 2d, -bounds.getHeight() / 2d, bounds.getWidth(), bounds.getHeight(), 4, 4);
+                    g.fillRoundRect(-width / 2d, -height / 2d, width, height, 4, 4);
                     break;
                 case CIRCLE:
                 default:
-                    g.fillOval(-bounds.getWidth() / 2d, -bounds.getHeight() / 2d, bounds.getWidth(), bounds.getHeight());
+                    g.fillOval(-width / 2d, -height / 2d, width, height);
             }
         }
 
-        if (!StyleConstants.StrokeMode.NONE.equals(group.getStrokeMode()))
+        if (stroked)
         {
-            switch (group.getShape())
+            switch (shape)
             {
                 case BOX:
-                    g.strokeRect(-bounds.getWidth() / 2d, -bounds.getHeight() / 2d, bounds.getWidth(), bounds.getHeight());
+                    g.strokeRect(-width / 2d, -height / 2d, width, height);
                     break;
                 case DIAMOND:
                 case ROUNDED_BOX:
-                    g.strokeRoundRect(-bounds.getWidth() / 2d, -bounds.getHeight() / 2d, bounds.getWidth(), bounds.getHeight(), 4, 4);
+                    g.strokeRoundRect(-width / 2d, -height / 2d, width, height, 4, 4);
                     break;
                 case CIRCLE:
                 default:
-                    g.strokeOval(-bounds.getWidth() / 2d, -bounds.getHeight() / 2d, bounds.getWidth(), bounds.getHeight());
+                    g.strokeOval(-width / 2d, -height / 2d, width, height);
             }
         }
 
         g.setTransform(new Affine());
 
+        if (size < detail.getIconSize())
+        {
+            return;
+        }
         final Image icon = this.renderIcon(group, g, camera, element, this.getWidth(), this.getHeight());
         if (icon != null)
         {
-            final double iconX = pos.getX() - (icon.getWidth() / 2d);
-            final double iconY = pos.getY() - (icon.getHeight() / 2d);
-            g.drawImage(icon, iconX, iconY);
+            drawIcon(g, icon, x, y, this.getWidth(), this.getHeight());
         }
     }
 }
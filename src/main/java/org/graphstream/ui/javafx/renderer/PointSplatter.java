@@ -0,0 +1,334 @@
+/*
+ * Copyright 2006 - 2013
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.ui.javafx.renderer;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * rasterizes nodes as small opaque squares straight into a pixel buffer
+ * <p>
+ * Points are added in drawing order, then binned into horizontal bands that
+ * are filled in parallel on a fork-join pool. Each band is only written by
+ * one task and visits its points in insertion order, so later points cover
+ * earlier ones exactly as with sequential drawing. The buffer is uploaded
+ * with a single pixel writer call.
+ * <p>
+ * A frame may be split into several runs so points can sit between other
+ * drawing. A canvas records images by reference until the frame is pulsed,
+ * so every run of a frame gets its own image from a small pool that is only
+ * recycled by the next {@link #begin(int, int)}.
+ */
+public class PointSplatter
+{
+    private static final int bandHeight = 32;
+
+    private static final int maxPointSize = 8;
+
+    private final ForkJoinPool pool;
+
+    private int width = 0;
+
+    private int height = 0;
+
+    private int[] pixels = new int[0];
+
+    private final List<WritableImage> images = new ArrayList<>();
+
+    private int usedImages = 0;
+
+    private int[] xs = new int[1024];
+
+    private int[] ys = new int[1024];
+
+    private int[] sizes = new int[1024];
+
+    private int[] colors = new int[1024];
+
+    private int numPoints = 0;
+
+    private int[] bandStart = new int[2];
+
+    private int[] binned = new int[1024];
+
+
+    public PointSplatter()
+    {
+        this(ForkJoinPool.commonPool());
+    }
+
+
+    public PointSplatter(final ForkJoinPool pool)
+    {
+        if (null == pool)
+        {
+            throw new IllegalArgumentException("Pool cannot be null.");
+        }
+        this.pool = pool;
+    }
+
+
+    /**
+     * @return the colour packed as premultiplied argb, as the buffer stores it
+     */
+    public static int pack(final Color color)
+    {
+        final double alpha = color.getOpacity();
+        final int a = (int) Math.round(alpha * 255d);
+        final int r = (int) Math.round(color.getRed() * alpha * 255d);
+        final int g = (int) Math.round(color.getGreen() * alpha * 255d);
+        final int b = (int) Math.round(color.getBlue() * alpha * 255d);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+
+    public void begin(final int width, final int height)
+    {
+        this.width = Math.max(0, width);
+        this.height = Math.max(0, height);
+        this.numPoints = 0;
+        this.usedImages = 0;
+    }
+
+
+    public int size()
+    {
+        return this.numPoints;
+    }
+
+
+    /**
+     * @param size side of the square in pixels, clamped between one and a few pixels
+     * @return false if the point lies entirely off the buffer
+     */
+    public boolean add(final double x, final double y, final double size, final int argb)
+    {
+        final int side = Math.max(1, Math.min(maxPointSize, (int) Math.round(size)));
+        final int left = (int) Math.floor(x - side / 2d);
+        final int top = (int) Math.floor(y - side / 2d);
+        if (left >= this.width || top >= this.height || left + side <= 0 || top + side <= 0)
+        {
+            return false;
+        }
+        if (this.numPoints >= this.xs.length)
+        {
+            final int capacity = this.xs.length * 2;
+            this.xs = Arrays.copyOf(this.xs, capacity);
+            this.ys = Arrays.copyOf(this.ys, capacity);
+            this.sizes = Arrays.copyOf(this.sizes, capacity);
+            this.colors = Arrays.copyOf(this.colors, capacity);
+        }
+        this.xs[this.numPoints] = left;
+        this.ys[this.numPoints] = top;
+        this.sizes[this.numPoints] = side;
+        this.colors[this.numPoints] = argb;
+        this.numPoints++;
+        return true;
+    }
+
+
+    /**
+     * rasterize every point added since {@link #begin(int, int)} or the last call, and start a new run
+     *
+     * @return an image holding the points over a transparent background, or null if there is nothing to draw
+     */
+    public Image end()
+    {
+        if (this.width <= 0 || this.height <= 0 || this.numPoints <= 0)
+        {
+            return null;
+        }
+
+        final int numPixels = this.width * this.height;
+        if (this.pixels.length < numPixels)
+        {
+            this.pixels = new int[numPixels];
+        }
+        this.bin();
+
+        final int numBands = (this.height + bandHeight - 1) / bandHeight;
+        this.pool.invoke(new BandTask(0, numBands));
+
+        this.numPoints = 0;
+
+        WritableImage image = this.usedImages < this.images.size() ? this.images.get(this.usedImages) : null;
+        if (null == image || (int) image.getWidth() != this.width || (int) image.getHeight() != this.height)
+        {
+            image = new WritableImage(this.width, this.height);
+            if (this.usedImages < this.images.size())
+            {
+                this.images.set(this.usedImages, image);
+            }
+            else
+            {
+                this.images.add(image);
+            }
+        }
+        this.usedImages++;
+        image.getPixelWriter().setPixels(0, 0, this.width, this.height, PixelFormat.getIntArgbPreInstance(), this.pixels, 0, this.width);
+        return image;
+    }
+
+
+    private void bin()
+    {
+        // counting sort of points into every band they overlap, keeping insertion order
+        final int numBands = (this.height + bandHeight - 1) / bandHeight;
+        if (this.bandStart.length < numBands + 1)
+        {
+            this.bandStart = new int[numBands + 1];
+        }
+        else
+        {
+            Arrays.fill(this.bandStart, 0, numBands + 1, 0);
+        }
+        for (int i = 0; i < this.numPoints; i++)
+        {
+            final int first = this.firstBand(i);
+            final int last = this.lastBand(i, numBands);
+            for (int band = first; band <= last; band++)
+            {
+                this.bandStart[band + 1]++;
+            }
+        }
+        for (int band = 0; band < numBands; band++)
+        {
+            this.bandStart[band + 1] += this.bandStart[band];
+        }
+        final int entries = this.bandStart[numBands];
+        if (this.binned.length < entries)
+        {
+            this.binned = new int[Math.max(entries, this.binned.length * 2)];
+        }
+        final int[] cursor = Arrays.copyOf(this.bandStart, numBands);
+        for (int i = 0; i < this.numPoints; i++)
+        {
+            final int first = this.firstBand(i);
+            final int last = this.lastBand(i, numBands);
+            for (int band = first; band <= last; band++)
+            {
+                this.binned[cursor[band]++] = i;
+            }
+        }
+    }
+
+
+    private int firstBand(final int point)
+    {
+        return Math.max(0, this.ys[point]) / bandHeight;
+    }
+
+
+    private int lastBand(final int point, final int numBands)
+    {
+        return Math.min(numBands - 1, (this.ys[point] + this.sizes[point] - 1) / bandHeight);
+    }
+
+
+    private void fillBand(final int band)
+    {
+        final int top = band * bandHeight;
+        final int bottom = Math.min(this.height, top + bandHeight);
+        Arrays.fill(this.pixels, top * this.width, bottom * this.width, 0);
+        for (int k = this.bandStart[band]; k < this.bandStart[band + 1]; k++)
+        {
+            final int i = this.binned[k];
+            final int color = this.colors[i];
+            final int alpha = color >>> 24;
+            final int x0 = Math.max(0, this.xs[i]);
+            final int x1 = Math.min(this.width, this.xs[i] + this.sizes[i]);
+            final int y0 = Math.max(top, this.ys[i]);
+            final int y1 = Math.min(bottom, this.ys[i] + this.sizes[i]);
+            for (int y = y0; y < y1; y++)
+            {
+                final int row = y * this.width;
+                for (int x = x0; x < x1; x++)
+                {
+                    this.pixels[row + x] = alpha == 255 ? color : over(color, alpha, this.pixels[row + x]);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * premultiplied source over destination
+     */
+    private static int over(final int src, final int srcAlpha, final int dst)
+    {
+        final int inverse = 255 - srcAlpha;
+        final int a = srcAlpha + ((dst >>> 24) * inverse + 127) / 255;
+        final int r = ((src >> 16) & 0xff) + (((dst >> 16) & 0xff) * inverse + 127) / 255;
+        final int g = ((src >> 8) & 0xff) + (((dst >> 8) & 0xff) * inverse + 127) / 255;
+        final int b = (src & 0xff) + ((dst & 0xff) * inverse + 127) / 255;
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+
+    private final class BandTask extends RecursiveAction
+    {
+        private final int from;
+
+        private final int to;
+
+
+        private BandTask(final int from, final int to)
+        {
+            this.from = from;
+            this.to = to;
+        }
+
+
+        @Override
+        protected void compute()
+        {
+            if (this.to - this.from <= 1)
+            {
+                for (int band = this.from; band < this.to; band++)
+                {
+                    PointSplatter.this.fillBand(band);
+                }
+                return;
+            }
+            final int middle = (this.from + this.to) >>> 1;
+            invokeAll(new BandTask(this.from, middle), new BandTask(middle, this.to));
+        }
+    }
+}
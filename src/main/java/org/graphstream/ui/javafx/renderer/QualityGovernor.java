@@ -0,0 +1,210 @@
+/*
+ * Copyright 2006 - 2013
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.ui.javafx.renderer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * adjusts a rendering quality level to hold a target frame time
+ * <p>
+ * The smoothed frame time is compared with the target after every frame; the
+ * level drops a step after a few slow frames and climbs back a step after a
+ * longer run of fast ones, so it settles instead of oscillating. Levels run
+ * from {@link #minLevel}, where only plain node boxes and hairline edges are
+ * drawn, to {@link #maxLevel}, where everything the stylesheet asks for is.
+ */
+public class QualityGovernor
+{
+    public static final int minLevel = 0;
+
+    public static final int maxLevel = 4;
+
+    /**
+     * lowest level drawing icons and using lcd text smoothing when antialiasing is on
+     */
+    public static final int iconsLevel = 4;
+
+    /**
+     * lowest level drawing labels
+     */
+    public static final int labelsLevel = 3;
+
+    /**
+     * lowest level drawing arrows and strokes wider than a pixel
+     */
+    public static final int arrowsLevel = 2;
+
+    /**
+     * lowest level drawing node shapes other than boxes, and node strokes
+     */
+    public static final int shapesLevel = 1;
+
+    public static final double defaultFrameRate = 30d;
+
+    private static final double smoothing = .2d;
+
+    private static final double slowFactor = 1.15d;
+
+    private static final double fastFactor = .6d;
+
+    private static final int slowFramesToDrop = 3;
+
+    private static final int fastFramesToRaise = 30;
+
+    private boolean enabled = true;
+
+    private long targetNanos = frameNanos(defaultFrameRate);
+
+    private int floor = minLevel;
+
+    private int level = maxLevel;
+
+    private double average = 0;
+
+    private int slowFrames = 0;
+
+    private int fastFrames = 0;
+
+
+    private static long frameNanos(final double frameRate)
+    {
+        return Math.round(TimeUnit.SECONDS.toNanos(1) / frameRate);
+    }
+
+
+    public boolean isEnabled()
+    {
+        return this.enabled;
+    }
+
+
+    /**
+     * a disabled governor always reports {@link #maxLevel}, whatever its floor
+     */
+    public void setEnabled(final boolean enabled)
+    {
+        this.enabled = enabled;
+        this.reset();
+    }
+
+
+    public double getTargetFrameRate()
+    {
+        return TimeUnit.SECONDS.toNanos(1) / (double) this.targetNanos;
+    }
+
+
+    public void setTargetFrameRate(final double frameRate)
+    {
+        if (frameRate <= 0 || Double.isNaN(frameRate) || Double.isInfinite(frameRate))
+        {
+            throw new IllegalArgumentException("Frame rate must be positive.");
+        }
+        this.targetNanos = frameNanos(frameRate);
+        this.slowFrames = 0;
+        this.fastFrames = 0;
+    }
+
+
+    public int getFloor()
+    {
+        return this.floor;
+    }
+
+
+    /**
+     * @param floor lowest level the governor may fall to
+     */
+    public void setFloor(final int floor)
+    {
+        this.floor = Math.max(minLevel, Math.min(maxLevel, floor));
+        this.level = Math.max(this.level, this.floor);
+    }
+
+
+    public int getLevel()
+    {
+        return this.enabled ? this.level : maxLevel;
+    }
+
+
+    /**
+     * @return the smoothed frame time, in nanoseconds
+     */
+    public long getAverageFrameNanos()
+    {
+        return Math.round(this.average);
+    }
+
+
+    public void frameRendered(final long frameNanos)
+    {
+        if (!this.enabled || frameNanos <= 0)
+        {
+            return;
+        }
+        this.average = this.average <= 0 ? frameNanos : this.average + (frameNanos - this.average) * smoothing;
+
+        if (this.average > this.targetNanos * slowFactor && this.level > this.floor)
+        {
+            this.fastFrames = 0;
+            if (++this.slowFrames >= slowFramesToDrop)
+            {
+                this.level--;
+                this.slowFrames = 0;
+            }
+        }
+        else if (this.average < this.targetNanos * fastFactor && this.level < maxLevel)
+        {
+            this.slowFrames = 0;
+            if (++this.fastFrames >= fastFramesToRaise)
+            {
+                this.level++;
+                this.fastFrames = 0;
+            }
+        }
+        else
+        {
+            this.slowFrames = 0;
+            this.fastFrames = 0;
+        }
+    }
+
+
+    public void reset()
+    {
+        this.level = maxLevel;
+        this.average = 0;
+        this.slowFrames = 0;
+        this.fastFrames = 0;
+    }
+}
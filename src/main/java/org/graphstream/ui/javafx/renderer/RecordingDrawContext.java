@@ -0,0 +1,165 @@
+/*
+ * Copyright 2006 - 2013
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.ui.javafx.renderer;
+
+import java.util.Arrays;
+
+/**
+ * a headless backend that keeps a compact log of every call it receives
+ * <p>
+ * Commands are stored as one byte each, their numeric arguments packed in a
+ * single double array and any other argument (paint, font, text, image) as a
+ * reference, so a frame of many thousand commands stays cheap to record.
+ */
+public class RecordingDrawContext extends CountingDrawContext
+{
+    private static final DrawCommand[] commands = DrawCommand.values();
+
+    private byte[] ops = new byte[256];
+
+    private int[] offsets = new int[256];
+
+    private Object[] references = new Object[256];
+
+    private int size = 0;
+
+    private double[] arguments = new double[1024];
+
+    private int numArguments = 0;
+
+
+    @Override
+    public void reset()
+    {
+        super.reset();
+        Arrays.fill(this.references, 0, this.size, null);
+        this.size = 0;
+        this.numArguments = 0;
+    }
+
+
+    public int size()
+    {
+        return this.size;
+    }
+
+
+    public DrawCommand getCommand(final int index)
+    {
+        this.checkIndex(index);
+        return commands[this.ops[index]];
+    }
+
+
+    public Object getReference(final int index)
+    {
+        this.checkIndex(index);
+        return this.references[index];
+    }
+
+
+    /**
+     * @return the index-th numeric argument of a command
+     */
+    public double getArgument(final int index, final int argument)
+    {
+        this.checkIndex(index);
+        if (argument < 0 || argument >= commands[this.ops[index]].getArity())
+        {
+            throw new IndexOutOfBoundsException("Argument [" + argument + "] out of range.");
+        }
+        return this.arguments[this.offsets[index] + argument];
+    }
+
+
+    @Override
+    protected void command(final DrawCommand command, final Object reference)
+    {
+        super.command(command, reference);
+        if (this.size >= this.ops.length)
+        {
+            final int capacity = this.ops.length * 2;
+            this.ops = Arrays.copyOf(this.ops, capacity);
+            this.offsets = Arrays.copyOf(this.offsets, capacity);
+            this.references = Arrays.copyOf(this.references, capacity);
+        }
+        this.ops[this.size] = (byte) command.ordinal();
+        this.offsets[this.size] = this.numArguments;
+        this.references[this.size] = reference;
+        this.size++;
+    }
+
+
+    @Override
+    protected void argument(final double value)
+    {
+        if (this.numArguments >= this.arguments.length)
+        {
+            this.arguments = Arrays.copyOf(this.arguments, this.arguments.length * 2);
+        }
+        this.arguments[this.numArguments++] = value;
+    }
+
+
+    private void checkIndex(final int index)
+    {
+        if (index < 0 || index >= this.size)
+        {
+            throw new IndexOutOfBoundsException("Command index [" + index + "] out of range.");
+        }
+    }
+
+
+    /**
+     * @return one line per command, with its arguments
+     */
+    @Override
+    public String toString()
+    {
+        final StringBuilder buffer = new StringBuilder();
+        for (int i = 0; i < this.size; i++)
+        {
+            final DrawCommand command = commands[this.ops[i]];
+            buffer.append(command.name());
+            for (int k = 0; k < command.getArity(); k++)
+            {
+                buffer.append(' ').append(this.arguments[this.offsets[i] + k]);
+            }
+            if (this.references[i] != null)
+            {
+                buffer.append(' ').append(this.references[i]);
+            }
+            buffer.append('\n');
+        }
+        return buffer.toString();
+    }
+}
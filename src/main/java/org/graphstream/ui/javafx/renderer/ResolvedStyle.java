@@ -0,0 +1,273 @@
+/*
+ * Copyright 2006 - 2013
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.ui.javafx.renderer;
+
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import org.graphstream.ui.graphicGraph.StyleGroup;
+import org.graphstream.ui.graphicGraph.stylesheet.StyleConstants;
+import org.graphstream.ui.graphicGraph.stylesheet.Value;
+import org.graphstream.ui.graphicGraph.stylesheet.Values;
+import org.graphstream.ui.javafx.util.FontCache;
+import org.graphstream.ui.javafx.util.SwingUtils;
+
+/**
+ * the style values of a style group converted once into what the renderers draw with
+ * <p>
+ * Instances are built from the group as it is at construction time; they are
+ * replaced, never updated, when the group style changes.
+ */
+public class ResolvedStyle
+{
+    private final Color fillColor;
+
+    private final Color strokeColor;
+
+    private final double strokeWidth;
+
+    private final Color textColor;
+
+    private final String textFont;
+
+    private final StyleConstants.TextStyle textStyle;
+
+    private final double textSize;
+
+    private final StyleConstants.TextMode textMode;
+
+    private final StyleConstants.TextVisibilityMode textVisibilityMode;
+
+    private final Values textVisibility;
+
+    private final StyleConstants.TextAlignment textAlignment;
+
+    private final StyleConstants.FillMode fillMode;
+
+    private final StyleConstants.StrokeMode strokeMode;
+
+    private final StyleConstants.Shape shape;
+
+    private final String icon;
+
+    private final StyleConstants.ArrowShape arrowShape;
+
+    private final double arrowLength;
+
+    private final double arrowWidth;
+
+    private int fontSize = -1;
+
+    private Font font = null;
+
+
+    public ResolvedStyle(final StyleGroup group)
+    {
+        if (null == group)
+        {
+            throw new IllegalArgumentException("Style group cannot be null.");
+        }
+
+        this.fillColor = colorOrBlack(group.getFillColor(0));
+        this.strokeColor = colorOrBlack(group.getStrokeColor(0));
+        this.textColor = colorOrBlack(group.getTextColor(0));
+
+        final Value width = group.getStrokeWidth();
+        this.strokeWidth = null == width ? 1d : width.doubleValue();
+
+        this.textFont = group.getTextFont();
+        this.textStyle = null == group.getTextStyle() ? StyleConstants.TextStyle.NORMAL : group.getTextStyle();
+        this.textSize = group.getTextSize().doubleValue();
+        this.textMode = group.getTextMode();
+        this.textVisibilityMode = group.getTextVisibilityMode();
+        this.textVisibility = group.getTextVisibility();
+        this.textAlignment = group.getTextAlignment();
+
+        this.fillMode = group.getFillMode();
+        this.strokeMode = group.getStrokeMode();
+        this.shape = group.getShape();
+        this.icon = group.getIcon();
+
+        this.arrowShape = group.getArrowShape();
+        final Values arrowSize = group.getArrowSize();
+        if (arrowSize != null && arrowSize.size() > 0)
+        {
+            this.arrowLength = arrowSize.get(0);
+            this.arrowWidth = arrowSize.get(0);
+        }
+        else
+        {
+            this.arrowLength = 0;
+            this.arrowWidth = 0;
+        }
+    }
+
+
+    private static Color colorOrBlack(final java.awt.Color color)
+    {
+        final Color converted = SwingUtils.fromAwt(color);
+        return null == converted ? Color.BLACK : converted;
+    }
+
+
+    public Color getFillColor()
+    {
+        return this.fillColor;
+    }
+
+
+    public Color getStrokeColor()
+    {
+        return this.strokeColor;
+    }
+
+
+    public double getStrokeWidth()
+    {
+        return this.strokeWidth;
+    }
+
+
+    public Color getTextColor()
+    {
+        return this.textColor;
+    }
+
+
+    public String getTextFont()
+    {
+        return this.textFont;
+    }
+
+
+    public StyleConstants.TextStyle getTextStyle()
+    {
+        return this.textStyle;
+    }
+
+
+    public double getTextSize()
+    {
+        return this.textSize;
+    }
+
+
+    public StyleConstants.TextMode getTextMode()
+    {
+        return this.textMode;
+    }
+
+
+    public StyleConstants.TextVisibilityMode getTextVisibilityMode()
+    {
+        return this.textVisibilityMode;
+    }
+
+
+    public Values getTextVisibility()
+    {
+        return this.textVisibility;
+    }
+
+
+    public StyleConstants.TextAlignment getTextAlignment()
+    {
+        return this.textAlignment;
+    }
+
+
+    public StyleConstants.FillMode getFillMode()
+    {
+        return this.fillMode;
+    }
+
+
+    public StyleConstants.StrokeMode getStrokeMode()
+    {
+        return this.strokeMode;
+    }
+
+
+    public boolean isFilled()
+    {
+        return !StyleConstants.FillMode.NONE.equals(this.fillMode);
+    }
+
+
+    public boolean isStroked()
+    {
+        return !StyleConstants.StrokeMode.NONE.equals(this.strokeMode);
+    }
+
+
+    public StyleConstants.Shape getShape()
+    {
+        return this.shape;
+    }
+
+
+    public String getIcon()
+    {
+        return this.icon;
+    }
+
+
+    public StyleConstants.ArrowShape getArrowShape()
+    {
+        return this.arrowShape;
+    }
+
+
+    public double getArrowLength()
+    {
+        return this.arrowLength;
+    }
+
+
+    public double getArrowWidth()
+    {
+        return this.arrowWidth;
+    }
+
+
+    /**
+     * @return the text font at the given size, remembering the last size asked for
+     */
+    public Font getFont(final int size)
+    {
+        if (size != this.fontSize || null == this.font)
+        {
+            this.font = FontCache.defaultFontCache().getFont(this.textFont, this.textStyle, size);
+            this.fontSize = size;
+        }
+        return this.font;
+    }
+}
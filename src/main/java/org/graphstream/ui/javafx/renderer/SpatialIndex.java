@@ -0,0 +1,319 @@
+package org.graphstream.ui.javafx.renderer;
+
+import org.graphstream.ui.graphicGraph.GraphicElement;
+
+import java.util.Arrays;
+
+/**
+ * a uniform grid over screen space used to find picking candidates
+ * <p>
+ * Elements are added with their screen bounds once per frame and then bucketed
+ * into cells, so point and box queries only visit the cells they overlap.
+ * Query results are always reported in insertion order.
+ */
+public class SpatialIndex
+{
+    private static final int maxCellsPerAxis = 2048;
+
+    private GraphicElement[] items = new GraphicElement[64];
+
+    private double[] bounds = new double[64 * 4];
+
+    private int size = 0;
+
+    private boolean built = false;
+
+    private double minX = 0;
+
+    private double minY = 0;
+
+    private double cellWidth = 1;
+
+    private double cellHeight = 1;
+
+    private int columns = 0;
+
+    private int rows = 0;
+
+    private int[] cellStart = new int[2];
+
+    private int[] cellItems = new int[64];
+
+    private int[] marks = new int[64];
+
+    private int stamp = 0;
+
+    private int[] results = new int[64];
+
+    private int resultCount = 0;
+
+
+    public void clear()
+    {
+        Arrays.fill(this.items, 0, this.size, null);
+        this.size = 0;
+        this.built = false;
+        this.resultCount = 0;
+    }
+
+
+    public boolean isBuilt()
+    {
+        return this.built;
+    }
+
+
+    public int size()
+    {
+        return this.size;
+    }
+
+
+    public void add(final GraphicElement element, final double x1, final double y1, final double x2, final double y2)
+    {
+        if (null == element)
+        {
+            return;
+        }
+        if (this.size >= this.items.length)
+        {
+            final int capacity = this.items.length * 2;
+            this.items = Arrays.copyOf(this.items, capacity);
+            this.bounds = Arrays.copyOf(this.bounds, capacity * 4);
+        }
+        final int offset = this.size * 4;
+        this.items[this.size] = element;
+        this.bounds[offset] = Math.min(x1, x2);
+        this.bounds[offset + 1] = Math.min(y1, y2);
+        this.bounds[offset + 2] = Math.max(x1, x2);
+        this.bounds[offset + 3] = Math.max(y1, y2);
+        this.size++;
+        this.built = false;
+    }
+
+
+    public void build()
+    {
+        if (this.size <= 0)
+        {
+            this.columns = 0;
+            this.rows = 0;
+            this.built = true;
+            return;
+        }
+
+        // overall extent of every indexed element
+        double loX = Double.POSITIVE_INFINITY;
+        double loY = Double.POSITIVE_INFINITY;
+        double hiX = Double.NEGATIVE_INFINITY;
+        double hiY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < this.size; i++)
+        {
+            final int offset = i * 4;
+            loX = Math.min(loX, this.bounds[offset]);
+            loY = Math.min(loY, this.bounds[offset + 1]);
+            hiX = Math.max(hiX, this.bounds[offset + 2]);
+            hiY = Math.max(hiY, this.bounds[offset + 3]);
+        }
+        final double extentX = Math.max(hiX - loX, 1d);
+        final double extentY = Math.max(hiY - loY, 1d);
+
+        // aim for a couple of elements per cell, keeping cells roughly square
+        final double cells = Math.max(1d, this.size / 2d);
+        this.columns = clamp((int) Math.round(Math.sqrt(cells * extentX / extentY)), 1, maxCellsPerAxis);
+        this.rows = clamp((int) Math.round(cells / this.columns), 1, maxCellsPerAxis);
+        this.minX = loX;
+        this.minY = loY;
+        this.cellWidth = extentX / this.columns;
+        this.cellHeight = extentY / this.rows;
+
+        // count entries per cell, then lay them out contiguously
+        final int numCells = this.columns * this.rows;
+        if (this.cellStart.length < numCells + 1)
+        {
+            this.cellStart = new int[numCells + 1];
+        }
+        else
+        {
+            Arrays.fill(this.cellStart, 0, numCells + 1, 0);
+        }
+        for (int i = 0; i < this.size; i++)
+        {
+            final int offset = i * 4;
+            final int c0 = this.column(this.bounds[offset]);
+            final int c1 = this.column(this.bounds[offset + 2]);
+            final int r0 = this.row(this.bounds[offset + 1]);
+            final int r1 = this.row(this.bounds[offset + 3]);
+            for (int r = r0; r <= r1; r++)
+            {
+                for (int c = c0; c <= c1; c++)
+                {
+                    this.cellStart[r * this.columns + c + 1]++;
+                }
+            }
+        }
+        for (int cell = 0; cell < numCells; cell++)
+        {
+            this.cellStart[cell + 1] += this.cellStart[cell];
+        }
+        final int entries = this.cellStart[numCells];
+        if (this.cellItems.length < entries)
+        {
+            this.cellItems = new int[Math.max(entries, this.cellItems.length * 2)];
+        }
+
+        // fill cells in insertion order so each cell stays sorted
+        final int[] cursor = Arrays.copyOf(this.cellStart, numCells);
+        for (int i = 0; i < this.size; i++)
+        {
+            final int offset = i * 4;
+            final int c0 = this.column(this.bounds[offset]);
+            final int c1 = this.column(this.bounds[offset + 2]);
+            final int r0 = this.row(this.bounds[offset + 1]);
+            final int r1 = this.row(this.bounds[offset + 3]);
+            for (int r = r0; r <= r1; r++)
+            {
+                for (int c = c0; c <= c1; c++)
+                {
+                    this.cellItems[cursor[r * this.columns + c]++] = i;
+                }
+            }
+        }
+
+        if (this.marks.length < this.size)
+        {
+            this.marks = new int[this.items.length];
+            this.stamp = 0;
+        }
+        this.built = true;
+    }
+
+
+    /**
+     * find every element whose bounds contain the given point
+     *
+     * @return the number of results, retrieved with {@link #getResult(int)}
+     */
+    public int queryPoint(final double x, final double y)
+    {
+        this.resultCount = 0;
+        if (!this.built || this.columns <= 0 || this.rows <= 0)
+        {
+            return 0;
+        }
+        if (x < this.minX || y < this.minY || x > this.minX + this.cellWidth * this.columns || y > this.minY + this.cellHeight * this.rows)
+        {
+            return 0;
+        }
+
+        final int cell = this.row(y) * this.columns + this.column(x);
+        for (int k = this.cellStart[cell]; k < this.cellStart[cell + 1]; k++)
+        {
+            final int i = this.cellItems[k];
+            final int offset = i * 4;
+            if (x >= this.bounds[offset] && y >= this.bounds[offset + 1] && x <= this.bounds[offset + 2] && y <= this.bounds[offset + 3])
+            {
+                this.addResult(i);
+            }
+        }
+        return this.resultCount;
+    }
+
+
+    /**
+     * find every element whose bounds overlap the given box
+     *
+     * @return the number of results, retrieved with {@link #getResult(int)}
+     */
+    public int queryBox(final double x1, final double y1, final double x2, final double y2)
+    {
+        this.resultCount = 0;
+        if (!this.built || this.columns <= 0 || this.rows <= 0)
+        {
+            return 0;
+        }
+
+        final double loX = Math.min(x1, x2);
+        final double loY = Math.min(y1, y2);
+        final double hiX = Math.max(x1, x2);
+        final double hiY = Math.max(y1, y2);
+        if (hiX < this.minX || hiY < this.minY || loX > this.minX + this.cellWidth * this.columns || loY > this.minY + this.cellHeight * this.rows)
+        {
+            return 0;
+        }
+
+        this.stamp++;
+        if (this.stamp == Integer.MAX_VALUE)
+        {
+            Arrays.fill(this.marks, 0);
+            this.stamp = 1;
+        }
+        final int c0 = this.column(loX);
+        final int c1 = this.column(hiX);
+        final int r0 = this.row(loY);
+        final int r1 = this.row(hiY);
+        for (int r = r0; r <= r1; r++)
+        {
+            for (int c = c0; c <= c1; c++)
+            {
+                final int cell = r * this.columns + c;
+                for (int k = this.cellStart[cell]; k < this.cellStart[cell + 1]; k++)
+                {
+                    final int i = this.cellItems[k];
+                    if (this.marks[i] == this.stamp)
+                    {
+                        continue;
+                    }
+                    this.marks[i] = this.stamp;
+                    final int offset = i * 4;
+                    if (this.bounds[offset + 2] >= loX && this.bounds[offset + 3] >= loY && this.bounds[offset] <= hiX && this.bounds[offset + 1] <= hiY)
+                    {
+                        this.addResult(i);
+                    }
+                }
+            }
+        }
+
+        // results from several cells are restored to insertion order
+        Arrays.sort(this.results, 0, this.resultCount);
+        return this.resultCount;
+    }
+
+
+    public GraphicElement getResult(final int index)
+    {
+        if (index < 0 || index >= this.resultCount)
+        {
+            throw new IndexOutOfBoundsException("Result index [" + index + "] out of range.");
+        }
+        return this.items[this.results[index]];
+    }
+
+
+    private void addResult(final int item)
+    {
+        if (this.resultCount >= this.results.length)
+        {
+            this.results = Arrays.copyOf(this.results, this.results.length * 2);
+        }
+        this.results[this.resultCount++] = item;
+    }
+
+
+    private int column(final double x)
+    {
+        return clamp((int) Math.floor((x - this.minX) / this.cellWidth), 0, this.columns - 1);
+    }
+
+
+    private int row(final double y)
+    {
+        return clamp((int) Math.floor((y - this.minY) / this.cellHeight), 0, this.rows - 1);
+    }
+
+
+    private static int clamp(final int value, final int min, final int max)
+    {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -31,8 +31,7 @@
  */
 package org.graphstream.ui.javafx.renderer;
 
-import javafx.geometry.Point2D;
-import javafx.scene.canvas.GraphicsContext;
+import org.graphstream.ui.geom.Point3;
 import org.graphstream.ui.graphicGraph.GraphicElement;
 import org.graphstream.ui.graphicGraph.GraphicSprite;
 import org.graphstream.ui.graphicGraph.StyleGroup;
@@ -56,9 +55,11 @@ public class SpriteRenderer extends ElementRenderer
 
     private double halfHeight;
 
+    private final Point3 position = new Point3();
+
 
     @Override
-    protected void setupRenderingPass(StyleGroup group, GraphicsContext g, FxCamera camera)
+    protected void setupRenderingPass(StyleGroup group, DrawContext g, FxCamera camera)
     {
         super.setupRenderingPass(group, g, camera);
         this.metrics = camera.getMetrics();
@@ -66,7 +67,7 @@ public class SpriteRenderer extends ElementRenderer
 
 
     @Override
-    protected void pushDynStyle(StyleGroup group, GraphicsContext g, FxCamera camera, GraphicElement element)
+    protected void pushDynStyle(StyleGroup group, DrawContext g, FxCamera camera, GraphicElement element)
     {
         super.pushDynStyle(group, g, camera, element);
 
@@ -82,7 +83,7 @@ public class SpriteRenderer extends ElementRenderer
 
 
     @Override
-    protected void pushStyle(StyleGroup group, GraphicsContext g, FxCamera camera)
+    protected void pushStyle(StyleGroup group, DrawContext g, FxCamera camera)
     {
         super.pushStyle(group, g, camera);
 
@@ -95,36 +96,31 @@ public class SpriteRenderer extends ElementRenderer
 
 
     @Override
-    protected ElementContext computeElement(StyleGroup group, GraphicsContext g, FxCamera camera, GraphicElement element)
+    protected ElementContext computeElement(StyleGroup group, DrawContext g, FxCamera camera, GraphicElement element)
     {
         return null;
     }
 
 
     @Override
-    protected void elementInvisible(StyleGroup group, GraphicsContext g, FxCamera camera, GraphicElement element)
+    protected void elementInvisible(StyleGroup group, DrawContext g, FxCamera camera, GraphicElement element)
     {
 
     }
 
 
     @Override
-    protected void renderElement(StyleGroup group, GraphicsContext g, FxCamera camera, GraphicElement element)
+    protected void renderElement(StyleGroup group, DrawContext g, FxCamera camera, GraphicElement element)
     {
         final GraphicSprite sprite = (GraphicSprite) element;
 
-        Point2D pos = null;
-        if (camera instanceof FxCamera)
-        {
-            pos = ((FxCamera) camera).getSpritePosition(sprite, StyleConstants.Units.GU);
-        }
-        if (null == pos)
+        if (!camera.getSpritePosition(sprite, StyleConstants.Units.GU, this.position))
         {
             return;
         }
 
-        final double x = pos.getX() - this.halfWidth;
-        final double y = pos.getY() - this.halfHeight;
+        final double x = this.position.x - this.halfWidth;
+        final double y = this.position.y - this.halfHeight;
         if (!StyleConstants.FillMode.NONE.equals(group.getFillMode()))
         {
             g.fillOval(x, y, this.width, this.halfHeight);
@@ -14,16 +14,55 @@ public class SquareContext extends AstractContext
 {
     private final GraphicElement element;
 
-    private final Rectangle2D bounds;
+    private double x;
 
-    private final Point2D pos;
+    private double y;
+
+    private double minX;
+
+    private double minY;
+
+    private double width;
+
+    private double height;
+
+    // built on demand and kept until the next update
+    private Rectangle2D bounds;
+
+    private Point2D pos;
+
+
+    public SquareContext(final GraphicElement element)
+    {
+        this.element = element;
+    }
 
 
     public SquareContext(final GraphicElement element, final Point2D pos, final Rectangle2D bounds)
     {
         this.element = element;
-        this.bounds = bounds;
+        this.update(pos, bounds);
+    }
+
+
+    public void update(final Point2D pos, final Rectangle2D bounds)
+    {
+        this.update(pos.getX(), pos.getY(), bounds.getMinX(), bounds.getMinY(), bounds.getWidth(), bounds.getHeight());
         this.pos = pos;
+        this.bounds = bounds;
+    }
+
+
+    public void update(final double x, final double y, final double minX, final double minY, final double width, final double height)
+    {
+        this.x = x;
+        this.y = y;
+        this.minX = minX;
+        this.minY = minY;
+        this.width = width;
+        this.height = height;
+        this.pos = null;
+        this.bounds = null;
     }
 
 
@@ -37,6 +76,10 @@ public class SquareContext extends AstractContext
     @Override
     public Rectangle2D getBounds()
     {
+        if (null == this.bounds)
+        {
+            this.bounds = new Rectangle2D(this.minX, this.minY, this.width, this.height);
+        }
         return this.bounds;
     }
 
@@ -44,6 +87,38 @@ public class SquareContext extends AstractContext
     @Override
     public Point2D getPosition()
     {
+        if (null == this.pos)
+        {
+            this.pos = new Point2D(this.x, this.y);
+        }
         return this.pos;
     }
+
+
+    @Override
+    public double getX()
+    {
+        return this.x;
+    }
+
+
+    @Override
+    public double getY()
+    {
+        return this.y;
+    }
+
+
+    @Override
+    public double getWidth()
+    {
+        return this.width;
+    }
+
+
+    @Override
+    public double getHeight()
+    {
+        return this.height;
+    }
 }
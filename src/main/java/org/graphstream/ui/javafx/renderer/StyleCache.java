@@ -0,0 +1,97 @@
+/*
+ * Copyright 2006 - 2013
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.ui.javafx.renderer;
+
+import org.graphstream.ui.graphicGraph.StyleGroup;
+import org.graphstream.ui.graphicGraph.stylesheet.Rule;
+import org.graphstream.ui.graphicGraph.stylesheet.StyleSheetListener;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * resolved styles of every style group, built on first use
+ * <p>
+ * Entries are dropped when elements change style group and the whole cache is
+ * emptied when the style sheet changes, so a frame only pays for a lookup.
+ */
+public class StyleCache implements StyleSheetListener
+{
+    private final Map<StyleGroup, ResolvedStyle> styles = new IdentityHashMap<>();
+
+
+    public ResolvedStyle get(final StyleGroup group)
+    {
+        ResolvedStyle style = this.styles.get(group);
+        if (null == style)
+        {
+            style = new ResolvedStyle(group);
+            this.styles.put(group, style);
+        }
+        return style;
+    }
+
+
+    public void invalidate(final StyleGroup group)
+    {
+        if (group != null)
+        {
+            this.styles.remove(group);
+        }
+    }
+
+
+    public void clear()
+    {
+        this.styles.clear();
+    }
+
+
+    public int size()
+    {
+        return this.styles.size();
+    }
+
+
+    @Override
+    public void styleAdded(final Rule oldRule, final Rule newRule)
+    {
+        this.clear();
+    }
+
+
+    @Override
+    public void styleSheetCleared()
+    {
+        this.clear();
+    }
+}
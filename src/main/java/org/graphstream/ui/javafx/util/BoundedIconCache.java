@@ -0,0 +1,255 @@
+package org.graphstream.ui.javafx.util;
+
+import javafx.scene.image.Image;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * an icon cache bounded by the memory its images take
+ * <p>
+ * Each icon weighs width x height x 4 bytes. Once the budget is exceeded the
+ * least recently used icons are evicted, optionally into a soft reference
+ * overflow the garbage collector may reclaim when memory runs low.
+ */
+public class BoundedIconCache implements IconCache
+{
+    public static final long defaultBudget = 64L * 1024L * 1024L;
+
+    private final long budget;
+
+    private final boolean softOverflow;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private final Map<String, Overflow> overflow = new HashMap<>();
+
+    private final ReferenceQueue<Image> collected = new ReferenceQueue<>();
+
+    private long bytes = 0;
+
+    private long hits = 0;
+
+    private long misses = 0;
+
+    private long softHits = 0;
+
+    private long evictions = 0;
+
+
+    public BoundedIconCache()
+    {
+        this(defaultBudget, true);
+    }
+
+
+    public BoundedIconCache(final long budget, final boolean softOverflow)
+    {
+        if (budget <= 0)
+        {
+            throw new IllegalArgumentException("Budget must be positive.");
+        }
+        this.budget = budget;
+        this.softOverflow = softOverflow;
+    }
+
+
+    public static long weigh(final Image icon)
+    {
+        if (null == icon)
+        {
+            return 0;
+        }
+        return Math.max(1L, Math.round(icon.getWidth()) * Math.round(icon.getHeight()) * 4L);
+    }
+
+
+    @Override
+    public synchronized Image get(final String id)
+    {
+        if (null == id)
+        {
+            return null;
+        }
+        final Entry entry = this.entries.get(id);
+        if (entry != null)
+        {
+            this.hits++;
+            return entry.icon;
+        }
+
+        this.expungeCollected();
+        final Overflow reference = this.overflow.remove(id);
+        final Image recovered = null == reference ? null : reference.get();
+        if (recovered != null)
+        {
+            // promote back into the strongly held set
+            this.softHits++;
+            this.hits++;
+            this.insert(id, recovered);
+            return recovered;
+        }
+        this.misses++;
+        return null;
+    }
+
+
+    @Override
+    public synchronized void put(final String id, final Image icon)
+    {
+        if (null == id || null == icon)
+        {
+            return;
+        }
+        this.overflow.remove(id);
+        this.insert(id, icon);
+    }
+
+
+    @Override
+    public synchronized void clear()
+    {
+        this.entries.clear();
+        this.overflow.clear();
+        this.bytes = 0;
+        this.expungeCollected();
+    }
+
+
+    @Override
+    public synchronized int size()
+    {
+        return this.entries.size();
+    }
+
+
+    /**
+     * @return the number of evicted icons still reachable through soft references
+     */
+    public synchronized int getOverflowSize()
+    {
+        this.expungeCollected();
+        return this.overflow.size();
+    }
+
+
+    public long getBudget()
+    {
+        return this.budget;
+    }
+
+
+    /**
+     * @return the weight of the strongly held icons, in bytes
+     */
+    public synchronized long getBytes()
+    {
+        return this.bytes;
+    }
+
+
+    @Override
+    public synchronized long getHitCount()
+    {
+        return this.hits;
+    }
+
+
+    @Override
+    public synchronized long getMissCount()
+    {
+        return this.misses;
+    }
+
+
+    /**
+     * @return the number of hits recovered from the soft reference overflow
+     */
+    public synchronized long getSoftHitCount()
+    {
+        return this.softHits;
+    }
+
+
+    public synchronized long getEvictionCount()
+    {
+        return this.evictions;
+    }
+
+
+    private void insert(final String id, final Image icon)
+    {
+        final Entry entry = new Entry(icon, weigh(icon));
+        final Entry previous = this.entries.put(id, entry);
+        if (previous != null)
+        {
+            this.bytes -= previous.weight;
+        }
+        this.bytes += entry.weight;
+        this.evict();
+    }
+
+
+    private void evict()
+    {
+        // always keep the most recent icon, even if it alone exceeds the budget
+        final Iterator<Map.Entry<String, Entry>> itr = this.entries.entrySet().iterator();
+        while (this.bytes > this.budget && this.entries.size() > 1 && itr.hasNext())
+        {
+            final Map.Entry<String, Entry> eldest = itr.next();
+            itr.remove();
+            this.bytes -= eldest.getValue().weight;
+            this.evictions++;
+            if (this.softOverflow)
+            {
+                this.overflow.put(eldest.getKey(), new Overflow(eldest.getKey(), eldest.getValue().icon, this.collected));
+            }
+        }
+    }
+
+
+    private void expungeCollected()
+    {
+        Overflow reference;
+        while ((reference = (Overflow) this.collected.poll()) != null)
+        {
+            // only drop the mapping if it was not replaced since
+            if (this.overflow.get(reference.id) == reference)
+            {
+                this.overflow.remove(reference.id);
+            }
+        }
+    }
+
+
+    private static final class Entry
+    {
+        private final Image icon;
+
+        private final long weight;
+
+
+        private Entry(final Image icon, final long weight)
+        {
+            this.icon = icon;
+            this.weight = weight;
+        }
+    }
+
+
+    private static final class Overflow extends SoftReference<Image>
+    {
+        private final String id;
+
+
+        private Overflow(final String id, final Image icon, final ReferenceQueue<Image> queue)
+        {
+            super(icon, queue);
+            this.id = id;
+        }
+    }
+}
@@ -37,23 +37,39 @@ import javafx.scene.text.FontWeight;
 import org.graphstream.ui.graphicGraph.stylesheet.StyleConstants;
 
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * A cache for fonts.
  * <p>
  * <p>
  * This cache allows to avoid reloading fonts and allows to quickly lookup a
- * font based on its name, its style (bold, italic) and its size.
+ * font based on its family, its style (bold, italic) and its size. Fonts are
+ * held per family in an array indexed by style and size, so lookups neither
+ * box nor lock and may happen from any thread. The family "default" (the
+ * stylesheet default for text-font) or null maps to the default font family.
  * </p>
  */
 public class FontCache
 {
-    protected Font defaultFont;
+    /**
+     * sizes up to this one are held in flat arrays, larger ones in a map
+     */
+    public static final int maxIndexedSize = 128;
 
-    protected final Map<String, FontSlot> cache = new TreeMap<>();
+    private static final String defaultFamily = "default";
 
-    private static FontCache defaultFontCache = new FontCache();
+    private static final StyleConstants.TextStyle[] styles = StyleConstants.TextStyle.values();
+
+    private static final FontCache defaultFontCache = new FontCache();
+
+    protected volatile Font defaultFont;
+
+    private final Map<String, FamilySlot> cache = new ConcurrentHashMap<>();
+
+    private final AtomicInteger entryCount = new AtomicInteger();
 
 
     public FontCache()
@@ -80,10 +96,6 @@ public class FontCache
 
     public static FontCache defaultFontCache()
     {
-        if (defaultFontCache == null)
-        {
-            defaultFontCache = new FontCache();
-        }
         return defaultFontCache;
     }
 
@@ -96,83 +108,103 @@ public class FontCache
 
     public Font getFont(String name, StyleConstants.TextStyle style, int size)
     {
-        FontSlot slot = cache.get(name);
-
-        if (slot == null)
+        final String family = null == name || name.isEmpty() || defaultFamily.equalsIgnoreCase(name) ? this.defaultFont.getFamily() : name;
+        FamilySlot slot = this.cache.get(family);
+        if (null == slot)
         {
-            slot = new FontSlot(name, style, size);
-            cache.put(name, slot);
+            slot = this.cache.computeIfAbsent(family, FamilySlot::new);
         }
+        return slot.get(null == style ? StyleConstants.TextStyle.NORMAL : style, Math.max(0, size), this.entryCount);
+    }
+
 
-        return slot.get(style, size);
+    /**
+     * load every size of a family and style ahead of use, for instance when a view opens
+     */
+    public void prewarm(final String name, final StyleConstants.TextStyle style, final int minSize, final int maxSize)
+    {
+        for (int size = Math.max(0, minSize); size <= maxSize; size++)
+        {
+            this.getFont(name, style, size);
+        }
     }
 
 
-    private static class FontSlot
+    /**
+     * @return the number of fonts created by this cache
+     */
+    public int size()
     {
-        private final String name;
+        return this.entryCount.get();
+    }
 
-        public final Map<Integer, Font> normal = new TreeMap<>();
 
-        public final Map<Integer, Font> bold = new TreeMap<>();
+    private static class FamilySlot
+    {
+        private final String name;
 
-        public final Map<Integer, Font> italic = new TreeMap<>();
+        private final AtomicReferenceArray<Font> indexed = new AtomicReferenceArray<>(styles.length * (maxIndexedSize + 1));
 
-        public final Map<Integer, Font> boldItalic = new TreeMap<>();
+        private final Map<Long, Font> large = new ConcurrentHashMap<>();
 
 
-        public FontSlot(String name, StyleConstants.TextStyle style, int size)
+        public FamilySlot(final String name)
         {
             this.name = name;
-            get(style, size);
         }
 
 
-        public Font get(StyleConstants.TextStyle style, int size)
+        public Font get(final StyleConstants.TextStyle style, final int size, final AtomicInteger entryCount)
         {
-            final Map<Integer, Font> map;
-            switch (style)
+            if (size <= maxIndexedSize)
             {
-                case BOLD:
-                    map = bold;
-                    break;
-                case ITALIC:
-                    map = italic;
-                    break;
-                case BOLD_ITALIC:
-                    map = boldItalic;
-                    break;
-                case NORMAL:
-                default:
-                    map = normal;
-                    break;
+                final int index = style.ordinal() * (maxIndexedSize + 1) + size;
+                final Font cached = this.indexed.get(index);
+                if (cached != null)
+                {
+                    return cached;
+                }
+                // concurrent misses may both load, only the first one is kept
+                final Font font = this.load(style, size);
+                if (this.indexed.compareAndSet(index, null, font))
+                {
+                    entryCount.incrementAndGet();
+                    return font;
+                }
+                return this.indexed.get(index);
             }
 
-            final Font cached = map.get(size);
+            final long key = ((long) style.ordinal() << 32) | size;
+            final Font cached = this.large.get(key);
             if (cached != null)
             {
                 return cached;
             }
+            final Font font = this.load(style, size);
+            final Font previous = this.large.putIfAbsent(key, font);
+            if (null == previous)
+            {
+                entryCount.incrementAndGet();
+                return font;
+            }
+            return previous;
+        }
+
 
-            final Font font;
+        private Font load(final StyleConstants.TextStyle style, final int size)
+        {
             switch (style)
             {
                 case BOLD:
-                    font = Font.font(this.name, FontWeight.BOLD, FontPosture.REGULAR, size);
-                    break;
+                    return Font.font(this.name, FontWeight.BOLD, FontPosture.REGULAR, size);
                 case ITALIC:
-                    font = Font.font(this.name, FontWeight.NORMAL, FontPosture.ITALIC, size);
-                    break;
+                    return Font.font(this.name, FontWeight.NORMAL, FontPosture.ITALIC, size);
                 case BOLD_ITALIC:
-                    font = Font.font(this.name, FontWeight.BOLD, FontPosture.ITALIC, size);
-                    break;
+                    return Font.font(this.name, FontWeight.BOLD, FontPosture.ITALIC, size);
                 case NORMAL:
                 default:
-                    font = Font.font(this.name, size);
-                    break;
+                    return Font.font(this.name, size);
             }
-            map.put(size, font);
-            return font;
         }
     }
-}
\ No newline at end of file
+}
@@ -81,6 +81,55 @@ public class Geometries
     }
 
 
+    /**
+     * test whether a segment crosses or lies within an axis-aligned rectangle
+     */
+    public static boolean segmentIntersectsRect(final double x0, final double y0, final double x1, final double y1,
+        final double minX, final double minY, final double maxX, final double maxY)
+    {
+        // trivial accept when either end point is inside
+        if (x0 >= minX && x0 <= maxX && y0 >= minY && y0 <= maxY)
+        {
+            return true;
+        }
+        if (x1 >= minX && x1 <= maxX && y1 >= minY && y1 <= maxY)
+        {
+            return true;
+        }
+
+        // trivial reject when both end points are beyond the same side
+        if ((x0 < minX && x1 < minX) || (x0 > maxX && x1 > maxX) || (y0 < minY && y1 < minY) || (y0 > maxY && y1 > maxY))
+        {
+            return false;
+        }
+
+        // clip the parametric segment against each side (liang-barsky)
+        final double dx = x1 - x0;
+        final double dy = y1 - y0;
+        final double[] range = {0d, 1d};
+        return clip(-dx, x0 - minX, range) && clip(dx, maxX - x0, range) && clip(-dy, y0 - minY, range) && clip(dy, maxY - y0, range);
+    }
+
+
+    private static boolean clip(final double p, final double q, final double[] range)
+    {
+        if (p == 0)
+        {
+            return q >= 0;
+        }
+        final double t = q / p;
+        if (p < 0)
+        {
+            range[0] = Math.max(range[0], t);
+        }
+        else
+        {
+            range[1] = Math.min(range[1], t);
+        }
+        return range[0] <= range[1];
+    }
+
+
     private Geometries()
     {
 
@@ -13,4 +13,22 @@ public interface IconCache
     Image get(String id);
     void put(String id, Image icon);
     void clear();
+
+    /**
+     * @return the number of cached icons
+     */
+    default int size()
+    {
+        return 0;
+    }
+
+    default long getHitCount()
+    {
+        return 0;
+    }
+
+    default long getMissCount()
+    {
+        return 0;
+    }
 }
@@ -0,0 +1,133 @@
+package org.graphstream.ui.javafx.util;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Iterator;
+
+/**
+ * collection of icon image utilities that work off the fx application thread
+ */
+public class IconImages
+{
+    /**
+     * read the pixel size of an image from its header, without decoding it
+     *
+     * @return width and height, or null if no image reader recognises the format
+     */
+    public static int[] readDimensions(final URL url) throws Exception
+    {
+        try (final InputStream input = url.openStream();
+             final ImageInputStream stream = ImageIO.createImageInputStream(input))
+        {
+            if (null == stream)
+            {
+                return null;
+            }
+            final Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext())
+            {
+                return null;
+            }
+            final ImageReader reader = readers.next();
+            try
+            {
+                reader.setInput(stream, true, true);
+                return new int[]{reader.getWidth(0), reader.getHeight(0)};
+            }
+            finally
+            {
+                reader.dispose();
+            }
+        }
+    }
+
+
+    /**
+     * resample an image to fit within the given size, keeping its aspect ratio
+     */
+    public static Image scale(final Image source, final int width, final int height)
+    {
+        final PixelReader reader = source.getPixelReader();
+        final int sw = (int) Math.round(source.getWidth());
+        final int sh = (int) Math.round(source.getHeight());
+        if (null == reader || sw <= 0 || sh <= 0 || width <= 0 || height <= 0)
+        {
+            return null;
+        }
+
+        final double ratio = Math.min((double) width / sw, (double) height / sh);
+        final int dw = Math.max(1, (int) Math.round(sw * ratio));
+        final int dh = Math.max(1, (int) Math.round(sh * ratio));
+        if (dw == sw && dh == sh)
+        {
+            return source;
+        }
+
+        final int[] src = new int[sw * sh];
+        reader.getPixels(0, 0, sw, sh, PixelFormat.getIntArgbInstance(), src, 0, sw);
+        final int[] dst = scale(src, sw, sh, dw, dh);
+        final WritableImage scaled = new WritableImage(dw, dh);
+        scaled.getPixelWriter().setPixels(0, 0, dw, dh, PixelFormat.getIntArgbInstance(), dst, 0, dw);
+        return scaled;
+    }
+
+
+    /**
+     * resample non-premultiplied argb pixels to exactly the given size
+     * <p>
+     * Shrinking averages every source pixel a destination pixel covers, weighted
+     * by alpha; enlarging picks the nearest source pixel.
+     */
+    public static int[] scale(final int[] src, final int sw, final int sh, final int dw, final int dh)
+    {
+        final int[] dst = new int[dw * dh];
+        final double fx = (double) sw / dw;
+        final double fy = (double) sh / dh;
+        for (int y = 0; y < dh; y++)
+        {
+            final int y0 = (int) (y * fy);
+            final int y1 = Math.max(y0 + 1, Math.min(sh, (int) Math.ceil((y + 1) * fy)));
+            for (int x = 0; x < dw; x++)
+            {
+                final int x0 = (int) (x * fx);
+                final int x1 = Math.max(x0 + 1, Math.min(sw, (int) Math.ceil((x + 1) * fx)));
+                long a = 0;
+                long r = 0;
+                long g = 0;
+                long b = 0;
+                for (int sy = y0; sy < y1; sy++)
+                {
+                    for (int sx = x0; sx < x1; sx++)
+                    {
+                        final int argb = src[sy * sw + sx];
+                        final int alpha = argb >>> 24;
+                        a += alpha;
+                        r += ((argb >> 16) & 0xff) * alpha;
+                        g += ((argb >> 8) & 0xff) * alpha;
+                        b += (argb & 0xff) * alpha;
+                    }
+                }
+                final int count = (y1 - y0) * (x1 - x0);
+                if (a > 0)
+                {
+                    dst[y * dw + x] = (int) ((a / count) << 24 | (r / a) << 16 | (g / a) << 8 | (b / a));
+                }
+            }
+        }
+        return dst;
+    }
+
+
+    private IconImages()
+    {
+
+    }
+}
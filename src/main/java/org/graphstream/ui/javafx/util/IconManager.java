@@ -2,19 +2,40 @@ package org.graphstream.ui.javafx.util;
 
 
 import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * a set of common icon management and lookup api
  * <p>
+ * Sized requests snap to a power of two bucket and are served from a mipmap
+ * pyramid of each registered image, so callers get an icon at least as large
+ * as asked for and draw it scaled into place. Levels are built once, by
+ * halving, and shared through a cache of decoded images.
+ * <p>
+ * Buckets missing from the cache are loaded on a small pool of worker threads;
+ * a translucent placeholder is returned until the icon is ready, at which
+ * point listeners are told to repaint.
+ * <p>
  * User: bowen
  * Date: 1/5/15
  */
@@ -24,9 +45,36 @@ public class IconManager
 
     private static final IconManager instance = new IconManager();
 
-    private IconCache cache = new MemoryIconCache();
+    private static final Color placeholderColor = Color.gray(.5d, .25d);
+
+    private static final long originalsBudget = 32L * 1024L * 1024L;
+
+    private static final int maxBucket = 4096;
+
+    private IconCache cache = new BoundedIconCache();
+
+    // decoded source images shared by every scaled size, keyed by url
+    private final IconCache originals = new BoundedIconCache(originalsBudget, true);
+
+    private final Map<String, IconEntry> icons = new ConcurrentSkipListMap<>();
+
+    private final Collection<IconPack> packs = new CopyOnWriteArrayList<>();
+
+    private final Map<String, Future<?>> pending = new ConcurrentHashMap<>();
 
-    private final Map<String, IconEntry> icons = new TreeMap<>();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+
+    private volatile Image placeholder = null;
+
+    private final Collection<IconListener> listeners = new CopyOnWriteArraySet<>();
+
+    private final ExecutorService loader = Executors.newFixedThreadPool(2, new LoaderThreadFactory());
+
+    private volatile boolean async = true;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
 
 
     public static IconManager getInstance()
@@ -57,6 +105,53 @@ public class IconManager
     }
 
 
+    /**
+     * @return true if sized icons are loaded off the calling thread
+     */
+    public boolean isAsync()
+    {
+        return this.async;
+    }
+
+
+    /**
+     * choose between background loading with placeholders and loading inline on a cache miss
+     */
+    public void setAsync(final boolean async)
+    {
+        this.async = async;
+    }
+
+
+    public void addListener(final IconListener listener)
+    {
+        if (null == listener)
+        {
+            return;
+        }
+        this.listeners.add(listener);
+    }
+
+
+    public void removeListener(final IconListener listener)
+    {
+        if (null == listener)
+        {
+            return;
+        }
+        this.listeners.remove(listener);
+    }
+
+
+    /**
+     * @return the number of icons being loaded in the background
+     */
+    public int getPendingCount()
+    {
+        return this.pending.size();
+    }
+
+
     public boolean add(final String name, final URL iconPath)
     {
         if (null == name)
@@ -64,13 +159,34 @@ public class IconManager
             return false;
         }
 
-        IconEntry entry = this.icons.get(name);
-        if (null == entry)
+        final IconEntry entry = this.icons.computeIfAbsent(name, key -> new IconEntry());
+        final boolean added = entry.add(iconPath);
+        if (added)
         {
-            entry = new IconEntry();
-            this.icons.put(name, entry);
+            // a new source may succeed where earlier loads found nothing
+            this.failed.clear();
         }
-        return entry.add(iconPath);
+        return added;
+    }
+
+
+    /**
+     * serve every icon of a pack from its mapped pixels, ahead of icons added by url
+     */
+    public void addPack(final IconPack pack)
+    {
+        if (null == pack)
+        {
+            throw new IllegalArgumentException("Pack cannot be null.");
+        }
+        this.packs.add(pack);
+        this.failed.clear();
+    }
+
+
+    public boolean removePack(final IconPack pack)
+    {
+        return pack != null && this.packs.remove(pack);
     }
 
 
@@ -87,7 +203,47 @@ public class IconManager
     public void clear()
     {
         this.cache.clear();
+        this.originals.clear();
         this.icons.clear();
+        this.packs.clear();
+        this.failed.clear();
+    }
+
+
+    /**
+     * @return the number of registered icon names
+     */
+    public int size()
+    {
+        return this.icons.size();
+    }
+
+
+    /**
+     * @return the number of lookups answered from the cache
+     */
+    public long getHitCount()
+    {
+        return this.hits.sum();
+    }
+
+
+    /**
+     * @return the number of lookups that had to read or scale an icon, or found none
+     */
+    public long getMissCount()
+    {
+        return this.misses.sum();
+    }
+
+
+    /**
+     * @return the power of two icon size serving a request of the given size
+     */
+    public static int sizeBucket(final int width, final int height)
+    {
+        final int size = Math.max(1, Math.min(maxBucket, Math.max(width, height)));
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
     }
 
 
@@ -97,6 +253,10 @@ public class IconManager
     }
 
 
+    /**
+     * @return an icon at least as large as requested on one side, to be drawn scaled
+     * to fit the requested size, or null if the name is unknown
+     */
     public Image get(final String name, final int width, final int height)
     {
         if (null == name)
@@ -105,29 +265,75 @@ public class IconManager
         }
 
         final String scaledId;
+        final int bucket;
         if (width > 0 && height > 0)
         {
-            scaledId = name + "#" + width + "x" + height;
+            bucket = sizeBucket(width, height);
+            scaledId = name + "#" + bucket;
         }
         else
         {
+            bucket = -1;
             scaledId = name;
         }
         final Image cached = this.cache.get(scaledId);
         if (cached != null)
         {
+            this.hits.increment();
             return cached;
         }
+        this.misses.increment();
+
+        for (final IconPack pack : this.packs)
+        {
+            if (pack.contains(name))
+            {
+                // packed pixels are mapped rather than decoded, so they load inline
+                final Image packed = pack.getImage(name, bucket);
+                if (packed != null)
+                {
+                    this.cache.put(scaledId, packed);
+                    return packed;
+                }
+            }
+        }
 
         final IconEntry entry = this.icons.get(name);
-        if (null == entry)
+        if (null == entry || this.failed.contains(scaledId))
         {
             return null;
         }
 
-        final Image scaled = entry.build(width, height);
+        if (!this.async || width <= 0 || height <= 0)
+        {
+            return this.load(scaledId, entry, bucket);
+        }
+
+        // single flight, concurrent misses on the same key share one load
+        this.pending.computeIfAbsent(scaledId, key -> this.loader.submit(() ->
+        {
+            try
+            {
+                if (this.load(key, entry, bucket) != null)
+                {
+                    this.listeners.forEach(l -> l.iconLoaded(name, width, height));
+                }
+            }
+            finally
+            {
+                this.pending.remove(key);
+            }
+        }));
+        return this.placeholder();
+    }
+
+
+    private Image load(final String scaledId, final IconEntry entry, final int bucket)
+    {
+        final Image scaled = entry.build(this.originals, bucket);
         if (null == scaled)
         {
+            this.failed.add(scaledId);
             return null;
         }
         this.cache.put(scaledId, scaled);
@@ -135,24 +341,71 @@ public class IconManager
     }
 
 
+    /**
+     * @return a single translucent pixel, drawn scaled up to the requested size
+     */
+    private Image placeholder()
+    {
+        Image image = this.placeholder;
+        if (null == image)
+        {
+            final WritableImage pixel = new WritableImage(1, 1);
+            pixel.getPixelWriter().setColor(0, 0, placeholderColor);
+            this.placeholder = image = pixel;
+        }
+        return image;
+    }
+
+
+    /**
+     * notified from a loader thread once a sized icon is available in the cache
+     */
+    public interface IconListener
+    {
+        void iconLoaded(String name, int width, int height);
+    }
+
+
+    private static class LoaderThreadFactory implements ThreadFactory
+    {
+        private final AtomicInteger count = new AtomicInteger();
+
+
+        @Override
+        public Thread newThread(final Runnable runnable)
+        {
+            final Thread thread = new Thread(runnable, "icon-loader-" + this.count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+
     private static class IconEntry
     {
         private final Set<ImageContext> icons = new TreeSet<>();
 
 
-        public boolean add(final URL iconPath)
+        public synchronized boolean add(final URL iconPath)
         {
             if (null == iconPath)
             {
                 return false;
             }
 
-            try (final InputStream input = iconPath.openStream())
+            try
             {
-                final Image image = new Image(input);
-                final int w = (int) Math.round(image.getWidth());
-                final int h = (int) Math.round(image.getWidth());
-                final ImageContext context = new ImageContext(iconPath, w, h);
+                int[] size = IconImages.readDimensions(iconPath);
+                if (null == size)
+                {
+                    // no header reader for this format, fall back to a full decode
+                    try (final InputStream input = iconPath.openStream())
+                    {
+                        final Image image = new Image(input);
+                        size = new int[]{(int) Math.round(image.getWidth()), (int) Math.round(image.getHeight())};
+                    }
+                }
+                final ImageContext context = new ImageContext(iconPath, size[0], size[1]);
                 return this.icons.add(context);
             }
             catch (final Exception e)
@@ -163,7 +416,7 @@ public class IconManager
         }
 
 
-        public Image build(final int width, final int height)
+        public synchronized Image build(final IconCache originals, final int bucket)
         {
             if (this.icons.isEmpty())
             {
@@ -171,35 +424,21 @@ public class IconManager
             }
 
             ImageContext best = this.icons.iterator().next();
-            if (width <= 0 || height <= 0)
+            if (bucket <= 0)
             {
-                return best.readImage();
+                return best.readImage(originals);
             }
 
+            // smallest registered image still covering the bucket, else the largest one
             for (final ImageContext ctx : this.icons)
             {
-                if (ctx.getWidth() == width || ctx.getHeight() == height)
-                {
-                    // same size
-                    return ctx.readImage();
-                }
-                if (ctx.getWidth() < width || ctx.getHeight() < height)
+                if (Math.max(ctx.getWidth(), ctx.getHeight()) < bucket)
                 {
-                    // image is too small to be rescaled
                     break;
                 }
-                else
-                {
-                    best = ctx;
-                }
-            }
-
-            if (null == best)
-            {
-                return null;
+                best = ctx;
             }
-
-            return best.scaleImage(width, height);
+            return best.readLevel(originals, best.levelFor(bucket));
         }
     }
 
@@ -238,11 +477,24 @@ public class IconManager
         }
 
 
-        public Image readImage()
+        public Image readImage(final IconCache originals)
         {
+            final String key = this.url.toExternalForm();
+            final Image cached = originals.get(key);
+            if (cached != null)
+            {
+                return cached;
+            }
             try (final InputStream input = this.url.openStream())
             {
-                return new Image(input);
+                final Image image = new Image(input);
+                if (image.isError())
+                {
+                    logger.warn("Unable to decode icon [" + this.url + "].", image.getException());
+                    return null;
+                }
+                originals.put(key, image);
+                return image;
             }
             catch (final Exception e)
             {
@@ -252,17 +504,49 @@ public class IconManager
         }
 
 
-        public Image scaleImage(final double w, final double h)
+        /**
+         * @return the deepest pyramid level whose larger side still covers the bucket
+         */
+        public int levelFor(final int bucket)
         {
-            try (final InputStream input = this.url.openStream())
+            final int size = Math.max(this.width, this.height);
+            int level = 0;
+            while ((size >> (level + 1)) >= bucket)
             {
-                return new Image(input, w, h, true, true);
+                level++;
             }
-            catch (final Exception e)
+            return level;
+        }
+
+
+        /**
+         * read a pyramid level, each one halving the previous, building and caching it on first use
+         */
+        public Image readLevel(final IconCache originals, final int level)
+        {
+            if (level <= 0)
+            {
+                return this.readImage(originals);
+            }
+            final String key = this.url.toExternalForm() + "#" + level;
+            final Image cached = originals.get(key);
+            if (cached != null)
+            {
+                return cached;
+            }
+            final Image parent = this.readLevel(originals, level - 1);
+            if (null == parent)
             {
-                logger.warn("Unable to read icon [" + this.url + "].", e);
                 return null;
             }
+            final int w = Math.max(1, (int) Math.round(parent.getWidth()) / 2);
+            final int h = Math.max(1, (int) Math.round(parent.getHeight()) / 2);
+            final Image image = IconImages.scale(parent, w, h);
+            if (image != null)
+            {
+                originals.put(key, image);
+            }
+            return image;
         }
 
 
@@ -0,0 +1,198 @@
+package org.graphstream.ui.javafx.util;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * a read-only, memory-mapped file of pre-scaled icons
+ * <p>
+ * The file starts with a header (magic, version, entry count) followed by an
+ * index of entries, each a name, a width, a height and the offset of its
+ * pixels. Pixels are premultiplied argb stored little-endian, i.e. in the
+ * byte order of {@link PixelFormat#getByteBgraPreInstance()}, so an image is
+ * made by handing a slice of the mapping to a pixel writer, without decoding.
+ * Files are produced by {@link IconPackWriter}.
+ */
+public class IconPack implements Closeable
+{
+    public static final int magic = 0x47534950;
+
+    public static final int version = 1;
+
+    private final Path path;
+
+    // read-only once opened, so lookups need no locking
+    private final Map<String, List<Entry>> entries;
+
+    private volatile MappedByteBuffer buffer;
+
+
+    private IconPack(final Path path, final MappedByteBuffer buffer, final Map<String, List<Entry>> entries)
+    {
+        this.path = path;
+        this.buffer = buffer;
+        this.entries = entries;
+    }
+
+
+    public static IconPack open(final Path path) throws IOException
+    {
+        if (null == path)
+        {
+            throw new IllegalArgumentException("Path cannot be null.");
+        }
+
+        final MappedByteBuffer buffer;
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            // the mapping stays valid once the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.remaining() < 12 || buffer.getInt(0) != magic)
+        {
+            throw new IOException("Not an icon pack [" + path + "].");
+        }
+        if (buffer.getInt(4) != version)
+        {
+            throw new IOException("Unsupported icon pack version [" + buffer.getInt(4) + "] in [" + path + "].");
+        }
+
+        final int count = buffer.getInt(8);
+        if (count < 0)
+        {
+            throw new IOException("Corrupt icon pack entry count [" + count + "] in [" + path + "].");
+        }
+        final Map<String, List<Entry>> entries = new TreeMap<>();
+        int position = 12;
+        for (int i = 0; i < count; i++)
+        {
+            if (position + 2 > buffer.capacity())
+            {
+                throw new IOException("Truncated icon pack index at entry [" + i + "] in [" + path + "].");
+            }
+            final int length = buffer.getShort(position) & 0xffff;
+            if ((long) position + 2 + length + 16 > buffer.capacity())
+            {
+                throw new IOException("Truncated icon pack index at entry [" + i + "] in [" + path + "].");
+            }
+            final byte[] name = new byte[length];
+            final ByteBuffer view = buffer.duplicate();
+            view.position(position + 2);
+            view.get(name);
+            position += 2 + length;
+            final int width = buffer.getInt(position);
+            final int height = buffer.getInt(position + 4);
+            final long offset = buffer.getLong(position + 8);
+            position += 16;
+            if (width <= 0 || height <= 0 || offset < 0 || offset + (long) width * height * 4 > buffer.capacity())
+            {
+                throw new IOException("Corrupt icon pack entry [" + i + "] in [" + path + "].");
+            }
+            entries.computeIfAbsent(new String(name, StandardCharsets.UTF_8), k -> new ArrayList<>()).add(new Entry(width, height, (int) offset));
+        }
+        // largest to smallest, as registered icons are
+        for (final Map.Entry<String, List<Entry>> sizes : entries.entrySet())
+        {
+            sizes.getValue().sort((left, right) -> Integer.compare(Math.max(right.width, right.height), Math.max(left.width, left.height)));
+            sizes.setValue(Collections.unmodifiableList(sizes.getValue()));
+        }
+        return new IconPack(path, buffer, Collections.unmodifiableMap(entries));
+    }
+
+
+    public Path getPath()
+    {
+        return this.path;
+    }
+
+
+    public Set<String> getNames()
+    {
+        return null == this.buffer ? Collections.<String>emptySet() : this.entries.keySet();
+    }
+
+
+    public boolean contains(final String name)
+    {
+        return name != null && this.buffer != null && this.entries.containsKey(name);
+    }
+
+
+    /**
+     * @param bucket requested size of the larger side, or non-positive for the largest entry
+     * @return the smallest packed size still covering the bucket, else the largest one
+     */
+    public Image getImage(final String name, final int bucket)
+    {
+        final List<Entry> sizes = null == name ? null : this.entries.get(name);
+        final ByteBuffer mapped = this.buffer;
+        if (null == sizes || null == mapped)
+        {
+            return null;
+        }
+
+        Entry best = sizes.get(0);
+        if (bucket > 0)
+        {
+            for (final Entry entry : sizes)
+            {
+                if (Math.max(entry.width, entry.height) < bucket)
+                {
+                    break;
+                }
+                best = entry;
+            }
+        }
+
+        final ByteBuffer pixels = mapped.duplicate();
+        pixels.position(best.offset);
+        pixels.limit(best.offset + best.width * best.height * 4);
+        final WritableImage image = new WritableImage(best.width, best.height);
+        image.getPixelWriter().setPixels(0, 0, best.width, best.height, PixelFormat.getByteBgraPreInstance(), pixels.slice(), best.width * 4);
+        return image;
+    }
+
+
+    @Override
+    public void close()
+    {
+        // mapped memory is released once the buffer is collected, the index is left for readers still holding it
+        this.buffer = null;
+    }
+
+
+    private static final class Entry
+    {
+        private final int width;
+
+        private final int height;
+
+        private final int offset;
+
+
+        private Entry(final int width, final int height, final int offset)
+        {
+            this.width = width;
+            this.height = height;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.graphstream.ui.javafx.util;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * builds an {@link IconPack} file from a set of images
+ * <p>
+ * Images are decoded with ImageIO and resampled to fit each requested size,
+ * keeping their aspect ratio; sizes larger than the source are skipped. Run
+ * as a tool with:
+ * <pre>
+ * IconPackWriter output.gsip 16,32,64,128 icons/ other=path/to/other.png
+ * </pre>
+ * where directories add every image they hold, named after the file.
+ */
+public class IconPackWriter
+{
+    private final Map<String, BufferedImage> images = new TreeMap<>();
+
+    private final int[] sizes;
+
+
+    public IconPackWriter(final int... sizes)
+    {
+        if (null == sizes || sizes.length <= 0)
+        {
+            throw new IllegalArgumentException("Sizes cannot be null/empty.");
+        }
+        for (final int size : sizes)
+        {
+            if (size <= 0)
+            {
+                throw new IllegalArgumentException("Size must be positive.");
+            }
+        }
+        this.sizes = sizes.clone();
+    }
+
+
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 3)
+        {
+            System.err.println("usage: IconPackWriter <output> <size,size,...> <directory|name=image>...");
+            System.exit(1);
+        }
+        final String[] sizeArgs = args[1].split(",");
+        final int[] sizes = new int[sizeArgs.length];
+        for (int i = 0; i < sizes.length; i++)
+        {
+            sizes[i] = Integer.parseInt(sizeArgs[i].trim());
+        }
+
+        final IconPackWriter writer = new IconPackWriter(sizes);
+        for (int i = 2; i < args.length; i++)
+        {
+            final int split = args[i].indexOf('=');
+            if (split > 0)
+            {
+                writer.add(args[i].substring(0, split), new File(args[i].substring(split + 1)));
+            }
+            else
+            {
+                writer.addDirectory(new File(args[i]));
+            }
+        }
+        writer.write(Paths.get(args[0]));
+    }
+
+
+    public void add(final String name, final File file) throws IOException
+    {
+        if (null == name || name.isEmpty())
+        {
+            throw new IllegalArgumentException("Name cannot be null/empty.");
+        }
+        final BufferedImage image = ImageIO.read(file);
+        if (null == image)
+        {
+            throw new IOException("Unable to decode image [" + file + "].");
+        }
+        this.images.put(name, image);
+    }
+
+
+    public void addDirectory(final File directory) throws IOException
+    {
+        final File[] files = directory.listFiles();
+        if (null == files)
+        {
+            throw new IOException("Unable to list directory [" + directory + "].");
+        }
+        for (final File file : files)
+        {
+            final String filename = file.getName();
+            final int dot = filename.lastIndexOf('.');
+            if (file.isFile() && dot > 0 && ImageIO.getImageReadersBySuffix(filename.substring(dot + 1)).hasNext())
+            {
+                this.add(filename.substring(0, dot), file);
+            }
+        }
+    }
+
+
+    public void write(final Path output) throws IOException
+    {
+        // scale everything first so the index can be laid out ahead of the pixels
+        final List<String> names = new ArrayList<>();
+        final List<int[]> pixels = new ArrayList<>();
+        final List<int[]> dimensions = new ArrayList<>();
+        for (final Map.Entry<String, BufferedImage> entry : this.images.entrySet())
+        {
+            final BufferedImage image = entry.getValue();
+            final int sw = image.getWidth();
+            final int sh = image.getHeight();
+            final int[] src = image.getRGB(0, 0, sw, sh, null, 0, sw);
+            boolean added = false;
+            for (final int size : this.sizes)
+            {
+                if (size > Math.max(sw, sh))
+                {
+                    continue;
+                }
+                final double ratio = Math.min((double) size / sw, (double) size / sh);
+                final int dw = Math.max(1, (int) Math.round(sw * ratio));
+                final int dh = Math.max(1, (int) Math.round(sh * ratio));
+                names.add(entry.getKey());
+                pixels.add(dw == sw && dh == sh ? src : IconImages.scale(src, sw, sh, dw, dh));
+                dimensions.add(new int[]{dw, dh});
+                added = true;
+            }
+            if (!added)
+            {
+                // every size is larger than the source, keep it as is
+                names.add(entry.getKey());
+                pixels.add(src);
+                dimensions.add(new int[]{sw, sh});
+            }
+        }
+
+        long offset = 12;
+        final List<byte[]> encodedNames = new ArrayList<>();
+        for (final String name : names)
+        {
+            final byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+            if (encoded.length > 0xffff)
+            {
+                throw new IOException("Icon name too long [" + name + "].");
+            }
+            encodedNames.add(encoded);
+            offset += 2 + encoded.length + 16;
+        }
+        // keep pixel rows int aligned
+        final int padding = (int) ((4 - (offset % 4)) % 4);
+        offset += padding;
+
+        try (final OutputStream file = Files.newOutputStream(output);
+             final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file)))
+        {
+            out.writeInt(IconPack.magic);
+            out.writeInt(IconPack.version);
+            out.writeInt(names.size());
+            for (int i = 0; i < names.size(); i++)
+            {
+                final int[] size = dimensions.get(i);
+                out.writeShort(encodedNames.get(i).length);
+                out.write(encodedNames.get(i));
+                out.writeInt(size[0]);
+                out.writeInt(size[1]);
+                out.writeLong(offset);
+                offset += (long) size[0] * size[1] * 4;
+            }
+            for (int i = 0; i < padding; i++)
+            {
+                out.writeByte(0);
+            }
+            for (final int[] argb : pixels)
+            {
+                for (final int pixel : argb)
+                {
+                    // premultiplied, written in bgra byte order
+                    final int a = pixel >>> 24;
+                    out.writeByte(((pixel & 0xff) * a + 127) / 255);
+                    out.writeByte((((pixel >> 8) & 0xff) * a + 127) / 255);
+                    out.writeByte((((pixel >> 16) & 0xff) * a + 127) / 255);
+                    out.writeByte(a);
+                }
+            }
+        }
+    }
+}
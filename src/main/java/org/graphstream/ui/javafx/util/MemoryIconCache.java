@@ -6,7 +6,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * an icon cache backed by map
+ * an icon cache backed by map, safe to fill from icon loader threads
  * <p>
  * User: bowen
  * Date: 1/5/15
@@ -15,20 +15,33 @@ public class MemoryIconCache implements IconCache
 {
     private final Map<String, Image> map = new HashMap<>();
 
+    private volatile long hits = 0;
+
+    private volatile long misses = 0;
+
 
     @Override
-    public Image get(final String id)
+    public synchronized Image get(final String id)
     {
         if (null == id)
         {
             return null;
         }
-        return this.map.get(id);
+        final Image icon = this.map.get(id);
+        if (icon != null)
+        {
+            this.hits++;
+        }
+        else
+        {
+            this.misses++;
+        }
+        return icon;
     }
 
 
     @Override
-    public void put(final String id, final Image icon)
+    public synchronized void put(final String id, final Image icon)
     {
         if (null == id || null == icon)
         {
@@ -39,8 +52,29 @@ public class MemoryIconCache implements IconCache
 
 
     @Override
-    public void clear()
+    public synchronized void clear()
     {
         this.map.clear();
     }
+
+
+    @Override
+    public synchronized int size()
+    {
+        return this.map.size();
+    }
+
+
+    @Override
+    public long getHitCount()
+    {
+        return this.hits;
+    }
+
+
+    @Override
+    public long getMissCount()
+    {
+        return this.misses;
+    }
 }
@@ -19,6 +19,10 @@ public class SwingUtils
 {
     private static final Component empty = new JLabel();
 
+    private static final int colorCacheBits = 10;
+
+    private static final ColorEntry[] colorCache = new ColorEntry[1 << colorCacheBits];
+
     public static java.awt.Color toAwt(final Color color)
     {
         if (null == color)
@@ -35,12 +39,40 @@ public class SwingUtils
         }
     }
 
+    /**
+     * convert an awt color, sharing one immutable instance per packed ARGB value
+     * <p>
+     * Converted colors are kept in a small two-way associative table, so repeated
+     * conversions of the same value do not allocate.
+     */
     public static Color fromAwt(final java.awt.Color color)
     {
         if (null == color)
         {
             return null;
         }
+        final int argb = color.getRGB();
+        final int index = ((argb * 0x9E3779B9) >>> (32 - colorCacheBits)) & ~1;
+        final ColorEntry first = colorCache[index];
+        if (first != null && first.argb == argb)
+        {
+            return first.color;
+        }
+        final ColorEntry second = colorCache[index + 1];
+        if (second != null && second.argb == argb)
+        {
+            return second.color;
+        }
+
+        // two-way buckets, the older entry is dropped
+        final Color converted = convert(color);
+        colorCache[index + 1] = first;
+        colorCache[index] = new ColorEntry(argb, converted);
+        return converted;
+    }
+
+    static Color convert(final java.awt.Color color)
+    {
         if (color.getAlpha() >= 255)
         {
             return Color.color(color.getRed() / 255d, color.getGreen() / 255d, color.getBlue() / 255d);
@@ -290,4 +322,17 @@ public class SwingUtils
     private SwingUtils()
     {
     }
+
+    private static final class ColorEntry
+    {
+        private final int argb;
+
+        private final Color color;
+
+        private ColorEntry(final int argb, final Color color)
+        {
+            this.argb = argb;
+            this.color = color;
+        }
+    }
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2006 - 2013
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.ui.javafx.util;
+
+import com.sun.javafx.tk.Toolkit;
+import javafx.scene.text.Font;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of measured label widths.
+ * <p>
+ * Widths are keyed by label and font and evicted in least recently used
+ * order. The cache is meant to be used from the FX application thread only;
+ * its size and counters may be read from any thread.
+ * </p>
+ */
+public class TextWidthCache
+{
+    private static final int defaultCapacity = 8192;
+
+    private static final TextWidthCache defaultTextWidthCache = new TextWidthCache(defaultCapacity);
+
+    private final int capacity;
+
+    private final Map<Key, Double> cache;
+
+    private final Key probe = new Key();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private volatile int entries = 0;
+
+
+    public TextWidthCache(final int capacity)
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<Key, Double>(Math.min(capacity, 1024), 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Double> eldest)
+            {
+                return this.size() > TextWidthCache.this.capacity;
+            }
+        };
+    }
+
+
+    public static TextWidthCache defaultTextWidthCache()
+    {
+        return defaultTextWidthCache;
+    }
+
+
+    public double getWidth(final String text, final Font font)
+    {
+        if (null == text || null == font)
+        {
+            return 0;
+        }
+
+        this.probe.set(text, font);
+        final Double cached = this.cache.get(this.probe);
+        if (cached != null)
+        {
+            this.hits.increment();
+            return cached;
+        }
+
+        this.misses.increment();
+        final double width = Toolkit.getToolkit().getFontLoader().computeStringWidth(text, font);
+        final Key key = new Key();
+        key.set(text, font);
+        this.cache.put(key, width);
+        this.entries = this.cache.size();
+        return width;
+    }
+
+
+    public int getCapacity()
+    {
+        return this.capacity;
+    }
+
+
+    public int size()
+    {
+        return this.entries;
+    }
+
+
+    public long getHitCount()
+    {
+        return this.hits.sum();
+    }
+
+
+    public long getMissCount()
+    {
+        return this.misses.sum();
+    }
+
+
+    public void clear()
+    {
+        this.cache.clear();
+        this.entries = 0;
+        this.hits.reset();
+        this.misses.reset();
+    }
+
+
+    private static final class Key
+    {
+        private String text;
+
+        private Font font;
+
+        private int hash;
+
+
+        private void set(final String text, final Font font)
+        {
+            this.text = text;
+            this.font = font;
+            this.hash = 31 * text.hashCode() + font.hashCode();
+        }
+
+
+        @Override
+        public int hashCode()
+        {
+            return this.hash;
+        }
+
+
+        @Override
+        public boolean equals(final Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (!(o instanceof Key))
+            {
+                return false;
+            }
+            final Key other = (Key) o;
+            return this.hash == other.hash && this.text.equals(other.text) && this.font.equals(other.font);
+        }
+    }
+}